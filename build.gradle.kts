@@ -220,6 +220,19 @@ bukkit {
         "Cosmin" // Fixes an issue with Cosmin loading before and taking /cosmetic, when messing with what we do.
     )
     foliaSupported = true
+    commands {
+        register("hibiscuscommons") {
+            description = "HibiscusCommons admin command"
+            usage = "/hibiscuscommons metrics [plugins|reset|timing <on|off>]"
+            permission = "hibiscuscommons.admin"
+        }
+    }
+    permissions {
+        register("hibiscuscommons.admin") {
+            description = "Allows using the HibiscusCommons admin command"
+            default = BukkitPluginDescription.Permission.Default.OP
+        }
+    }
     libraries = listOf(
         /*
         "net.kyori:adventure-api:4.24.0",
@@ -1,10 +1,18 @@
 package me.lojosho.hibiscuscommons;
 
 import lombok.Getter;
+import me.lojosho.hibiscuscommons.commands.HibiscusCommonsCommand;
+import me.lojosho.hibiscuscommons.config.GlobalSettings;
 import me.lojosho.hibiscuscommons.hooks.Hooks;
 import me.lojosho.hibiscuscommons.listener.PlayerConnectionEvent;
 import me.lojosho.hibiscuscommons.nms.NMSHandlers;
+import me.lojosho.hibiscuscommons.packets.PacketPipeline;
+import me.lojosho.hibiscuscommons.packets.PacketQueue;
+import me.lojosho.hibiscuscommons.packets.PacketWatchdog;
+import me.lojosho.hibiscuscommons.util.PlayerIndex;
 import me.lojosho.hibiscuscommons.util.ServerUtils;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.entity.Player;
 import org.jetbrains.annotations.ApiStatus;
 
 public final class HibiscusCommonsPlugin extends HibiscusPlugin {
@@ -15,6 +23,7 @@ public final class HibiscusCommonsPlugin extends HibiscusPlugin {
     private static boolean onPaper = false;
     @Getter
     private static boolean onFolia = false;
+    private boolean packetHandlerHooked = false;
 
     public HibiscusCommonsPlugin() {
         super(20726);
@@ -24,6 +33,9 @@ public final class HibiscusCommonsPlugin extends HibiscusPlugin {
     public void onStart() {
         instance = this;
 
+        saveDefaultConfig();
+        GlobalSettings.load(getConfig());
+
         // Do startup checks
         onPaper = checkPaper();
         onFolia = checkFolia();
@@ -42,13 +54,47 @@ public final class HibiscusCommonsPlugin extends HibiscusPlugin {
             getServer().getPluginManager().disablePlugin(this);
             return;
         }
+        if (GlobalSettings.isDirectEncoding()) NMSHandlers.getHandler().getPacketSender().verifyDirectEncoding();
+
+        // Prefer adding the packet handler on the connection's event loop while it is set up, falling back to adding it on join
+        boolean channelInitializer = NMSHandlers.getHandler().getUtilHandler().registerChannelInitializer();
+        getServer().getPluginManager().registerEvents(new PlayerConnectionEvent(!channelInitializer), this);
+        // Players that were already online, such as after a reload
+        for (Player player : getServer().getOnlinePlayers()) {
+            NMSHandlers.getHandler().getUtilHandler().handleChannelOpen(player);
+        }
+        packetHandlerHooked = true;
+        PacketWatchdog.start();
+        PacketQueue.start(this);
+        PlayerIndex.start(this);
+        PacketPipeline.start();
 
-        getServer().getPluginManager().registerEvents(new PlayerConnectionEvent(), this);
+        PluginCommand command = getCommand("hibiscuscommons");
+        if (command != null) {
+            HibiscusCommonsCommand executor = new HibiscusCommonsCommand();
+            command.setExecutor(executor);
+            command.setTabCompleter(executor);
+        }
 
         // Plugin startup logic
         Hooks.setup();
     }
 
+    @Override
+    public void onEnd() {
+        PacketWatchdog.stop();
+        if (!packetHandlerHooked) return;
+        PacketPipeline.stop();
+        // Send whatever is still waiting, before the tasks that would have sent it are gone
+        PacketQueue.flush();
+        PacketQueue.flushConnections();
+        packetHandlerHooked = false;
+        NMSHandlers.getHandler().getUtilHandler().unregisterChannelInitializer();
+        for (Player player : getServer().getOnlinePlayers()) {
+            NMSHandlers.getHandler().getUtilHandler().handleChannelClose(player);
+        }
+    }
+
     /**
      * Checks for Paper classes. Use {@link HibiscusCommonsPlugin#isOnPaper()} for cached value
      * @return True if plugin is running on a server with Paper; False if not
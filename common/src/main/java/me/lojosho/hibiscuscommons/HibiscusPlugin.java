@@ -3,14 +3,16 @@ package me.lojosho.hibiscuscommons;
 import com.jeff_media.updatechecker.UpdateCheckSource;
 import com.jeff_media.updatechecker.UpdateChecker;
 import lombok.Getter;
-import lombok.Setter;
 import me.lojosho.hibiscuscommons.packets.DefaultPacketInterface;
 import me.lojosho.hibiscuscommons.packets.PacketInterface;
+import me.lojosho.hibiscuscommons.packets.PacketSubscriptions;
+import me.lojosho.hibiscuscommons.packets.entity.VirtualEntities;
 import me.lojosho.hibiscuscommons.plugins.SubPlugins;
 import org.bstats.bukkit.Metrics;
 import org.bukkit.Bukkit;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
 
 public abstract class HibiscusPlugin extends JavaPlugin {
 
@@ -24,7 +26,7 @@ public abstract class HibiscusPlugin extends JavaPlugin {
     private boolean onLatestVersion = true;
     @Getter
     private boolean disabled = false;
-    @Getter @Setter
+    @Getter
     private PacketInterface packetInterface = new DefaultPacketInterface();
 
     protected HibiscusPlugin() {
@@ -102,6 +104,7 @@ public abstract class HibiscusPlugin extends JavaPlugin {
         SubPlugins.removeSubPlugin(this);
 
         onEnd();
+        VirtualEntities.removeAll(this);
     }
 
 
@@ -109,6 +112,11 @@ public abstract class HibiscusPlugin extends JavaPlugin {
         // Override
     }
 
+    public void setPacketInterface(@NotNull PacketInterface packetInterface) {
+        this.packetInterface = packetInterface;
+        PacketSubscriptions.refresh();
+    }
+
     public void onReload() {
         // Override
     }
@@ -1,8 +1,15 @@
 package me.lojosho.hibiscuscommons.api;
 
 import me.lojosho.hibiscuscommons.HibiscusCommonsPlugin;
+import me.lojosho.hibiscuscommons.HibiscusPlugin;
+import me.lojosho.hibiscuscommons.packets.PacketHandlerType;
+import me.lojosho.hibiscuscommons.packets.metrics.LatencyHistogram;
+import me.lojosho.hibiscuscommons.packets.metrics.PacketMetrics;
+import me.lojosho.hibiscuscommons.packets.metrics.PacketTypeMetrics;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Map;
+
 public class HibiscusCommonsAPI {
 
     /**
@@ -14,4 +21,31 @@ public class HibiscusCommonsAPI {
         return HibiscusCommonsPlugin.getInstance().getDescription().getVersion();
     }
 
+    /**
+     * Returns how many packets of a type were intercepted, changed and cancelled, and how long the
+     * packet interfaces took to handle them (in nanoseconds).
+     * @param type The intercepted packet type
+     * @return The metrics of the packet type
+     */
+    @NotNull
+    public static PacketTypeMetrics getPacketMetrics(@NotNull PacketHandlerType type) {
+        return PacketMetrics.getMetrics(type);
+    }
+
+    /**
+     * Returns how long the packet interface of a plugin took per packet type, in nanoseconds.
+     * @param plugin The plugin
+     * @return The handler time of the plugin, keyed by packet type
+     */
+    @NotNull
+    public static Map<PacketHandlerType, LatencyHistogram> getPacketTimings(@NotNull HibiscusPlugin plugin) {
+        return PacketMetrics.getPluginTimings().getOrDefault(plugin.getName(), Map.of());
+    }
+
+    /**
+     * Resets all packet counters and timings.
+     */
+    public static void resetPacketMetrics() {
+        PacketMetrics.reset();
+    }
 }
@@ -0,0 +1,87 @@
+package me.lojosho.hibiscuscommons.commands;
+
+import me.lojosho.hibiscuscommons.packets.PacketHandlerType;
+import me.lojosho.hibiscuscommons.packets.metrics.LatencyHistogram;
+import me.lojosho.hibiscuscommons.packets.metrics.PacketMetrics;
+import me.lojosho.hibiscuscommons.packets.metrics.PacketTypeMetrics;
+import me.lojosho.hibiscuscommons.util.AdventureUtils;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+
+public class HibiscusCommonsCommand implements CommandExecutor, TabCompleter {
+
+    @Override
+    public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+        if (args.length == 0 || !args[0].equalsIgnoreCase("metrics")) {
+            sendMessage(sender, "<gray>Usage: /" + label + " metrics [plugins|reset|timing <on|off>]");
+            return true;
+        }
+
+        String action = args.length > 1 ? args[1].toLowerCase() : "";
+        switch (action) {
+            case "plugins" -> sendPluginMetrics(sender);
+            case "reset" -> {
+                PacketMetrics.reset();
+                sendMessage(sender, "<green>Packet metrics have been reset.");
+            }
+            case "timing" -> {
+                if (args.length > 2) PacketMetrics.setTimingEnabled(args[2].equalsIgnoreCase("on"));
+                sendMessage(sender, "<gray>Packet handler timing is " + (PacketMetrics.isTimingEnabled() ? "<green>on" : "<red>off"));
+            }
+            default -> sendTypeMetrics(sender);
+        }
+        return true;
+    }
+
+    private void sendTypeMetrics(CommandSender sender) {
+        sendMessage(sender, "<gold>Packet interception <gray>(seen / dispatched / changed / cancelled, handler p50 / p99 / max)");
+        for (PacketHandlerType type : PacketHandlerType.values()) {
+            PacketTypeMetrics metrics = PacketMetrics.getMetrics(type);
+            if (metrics.getSeen() == 0) continue;
+            LatencyHistogram time = metrics.getHandlerTime();
+            sendMessage(sender, "<yellow>" + type.name() + "<gray>: <white>" + metrics.getSeen() + " / " + metrics.getDispatched()
+                    + " / " + metrics.getChanged() + " / " + metrics.getCancelled() + "<gray>, " + formatTimings(time));
+        }
+    }
+
+    private void sendPluginMetrics(CommandSender sender) {
+        sendMessage(sender, "<gold>Packet handler time per plugin <gray>(calls, p50 / p99 / p99.9 / max)");
+        for (Map.Entry<String, Map<PacketHandlerType, LatencyHistogram>> plugin : PacketMetrics.getPluginTimings().entrySet()) {
+            for (Map.Entry<PacketHandlerType, LatencyHistogram> entry : plugin.getValue().entrySet()) {
+                LatencyHistogram time = entry.getValue();
+                if (time.getCount() == 0) continue;
+                sendMessage(sender, "<yellow>" + plugin.getKey() + " " + entry.getKey().getMethodName() + "<gray>: <white>"
+                        + time.getCount() + "<gray>, " + formatTime(time.getValueAtPercentile(50)) + " / "
+                        + formatTime(time.getValueAtPercentile(99)) + " / " + formatTime(time.getValueAtPercentile(99.9))
+                        + " / " + formatTime(time.getMax()));
+            }
+        }
+    }
+
+    private String formatTimings(LatencyHistogram time) {
+        if (time.getCount() == 0) return "no timings";
+        return formatTime(time.getValueAtPercentile(50)) + " / " + formatTime(time.getValueAtPercentile(99)) + " / " + formatTime(time.getMax());
+    }
+
+    private String formatTime(long nanos) {
+        return String.format("%.1fus", nanos / 1000.0);
+    }
+
+    private void sendMessage(CommandSender sender, String message) {
+        sender.sendMessage(AdventureUtils.MINI_MESSAGE.deserialize(message));
+    }
+
+    @Override
+    public List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+        if (args.length == 1) return List.of("metrics");
+        if (args.length == 2 && args[0].equalsIgnoreCase("metrics")) return List.of("plugins", "reset", "timing");
+        if (args.length == 3 && args[1].equalsIgnoreCase("timing")) return List.of("on", "off");
+        return List.of();
+    }
+}
@@ -1,7 +1,41 @@
 package me.lojosho.hibiscuscommons.config;
 
+import lombok.Getter;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+
 public class GlobalSettings {
 
+    @Getter
+    private static int flushInterval = 1;
+    @Getter
+    private static boolean directEncoding = false;
+    @Getter
+    private static int buildThreads = 2;
+    @Getter
+    private static boolean watchdogEnabled = true;
+    @Getter
+    private static long watchdogBudgetNanos = TimeUnit.MILLISECONDS.toNanos(2);
+    @Getter
+    private static int watchdogStrikes = 5;
+    @Getter
+    private static long watchdogCooldownNanos = TimeUnit.SECONDS.toNanos(30);
 
+    public static void load(@NotNull FileConfiguration config) {
+        flushInterval = Math.max(1, config.getInt("packets.flush-interval", 1));
+        directEncoding = config.getBoolean("packets.direct-encoding", false);
+        int threads = config.getInt("packets.build-threads", 0);
+        buildThreads = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
 
+        ConfigurationSection watchdog = config.getConfigurationSection("packets.watchdog");
+        if (watchdog != null) {
+            watchdogEnabled = watchdog.getBoolean("enabled", true);
+            watchdogBudgetNanos = TimeUnit.MICROSECONDS.toNanos((long) (Math.max(0.1, watchdog.getDouble("budget", 2)) * 1000));
+            watchdogStrikes = Math.max(1, watchdog.getInt("strikes", 5));
+            watchdogCooldownNanos = TimeUnit.SECONDS.toNanos(Math.max(1, watchdog.getLong("cooldown", 30)));
+        }
+    }
 }
@@ -1,15 +1,37 @@
 package me.lojosho.hibiscuscommons.listener;
 
 import me.lojosho.hibiscuscommons.nms.NMSHandlers;
+import me.lojosho.hibiscuscommons.packets.PacketQueue;
+import me.lojosho.hibiscuscommons.packets.rules.PacketRules;
+import me.lojosho.hibiscuscommons.packets.team.PacketTeamManager;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 
 public class PlayerConnectionEvent implements Listener {
 
+    private final boolean injectOnJoin;
+
+    /**
+     * @param injectOnJoin If the packet handler has to be added on join, because it could not be added while the connection was set up
+     */
+    public PlayerConnectionEvent(boolean injectOnJoin) {
+        this.injectOnJoin = injectOnJoin;
+    }
+
     @EventHandler(ignoreCancelled = false, priority = EventPriority.LOW)
     public void onPlayerJoin(PlayerJoinEvent event) {
+        if (!injectOnJoin) return;
         NMSHandlers.getHandler().getUtilHandler().handleChannelOpen(event.getPlayer());
     }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        NMSHandlers.getHandler().getUtilHandler().handleChannelClose(event.getPlayer());
+        PacketRules.clearSlotOverlays(event.getPlayer());
+        PacketQueue.clear(event.getPlayer());
+        PacketTeamManager.clear(event.getPlayer());
+    }
 }
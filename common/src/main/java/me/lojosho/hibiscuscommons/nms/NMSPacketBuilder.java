@@ -1,6 +1,14 @@
 package me.lojosho.hibiscuscommons.nms;
 
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMaps;
 import it.unimi.dsi.fastutil.ints.IntList;
+import me.lojosho.hibiscuscommons.packets.AsyncSafe;
+import me.lojosho.hibiscuscommons.packets.EntityPositionTracker;
+import me.lojosho.hibiscuscommons.packets.MainThreadOnly;
+import me.lojosho.hibiscuscommons.packets.metadata.EntityMetadata;
+import me.lojosho.hibiscuscommons.packets.metadata.MetadataField;
+import me.lojosho.hibiscuscommons.packets.wrapper.PacketBundle;
 import me.lojosho.hibiscuscommons.packets.wrapper.PacketWrapper;
 import org.bukkit.GameMode;
 import org.bukkit.Location;
@@ -9,32 +17,120 @@ import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.EquipmentSlot;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.scoreboard.Team;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+/**
+ * Builds packets for the server version in use. Every builder is marked {@link AsyncSafe} or {@link MainThreadOnly}.
+ * Packets are built from the values they are given, so whichever thread builds them, they can be sent from any thread.
+ */
 public interface NMSPacketBuilder {
 
-    PacketWrapper buildEntityMovePacket(int entityId, @NotNull Location from, @NotNull Location to, boolean onGround);
+    /**
+     * Builds a relative move between two locations, or a teleport to the second location if they are too far apart.
+     */
+    @AsyncSafe
+    default PacketWrapper buildEntityMovePacket(int entityId, @NotNull Location from, @NotNull Location to, boolean onGround) {
+        long dx = EntityPositionTracker.encodeCoordinate(to.getX()) - EntityPositionTracker.encodeCoordinate(from.getX());
+        long dy = EntityPositionTracker.encodeCoordinate(to.getY()) - EntityPositionTracker.encodeCoordinate(from.getY());
+        long dz = EntityPositionTracker.encodeCoordinate(to.getZ()) - EntityPositionTracker.encodeCoordinate(from.getZ());
+        if (!EntityPositionTracker.fitsRelativeMove(dx) || !EntityPositionTracker.fitsRelativeMove(dy) || !EntityPositionTracker.fitsRelativeMove(dz)) {
+            return buildEntityTeleportPacket(entityId, to.getX(), to.getY(), to.getZ(), to.getYaw(), to.getPitch(), onGround);
+        }
+        return buildEntityMovePacket(entityId, (short) dx, (short) dy, (short) dz, onGround);
+    }
 
+    /**
+     * Builds a relative move. The deltas are in 1/4096 of a block, see {@link EntityPositionTracker#encodeCoordinate(double)}.
+     */
+    @AsyncSafe
+    PacketWrapper buildEntityMovePacket(int entityId, short dx, short dy, short dz, boolean onGround);
+
+    /**
+     * Builds a relative move that also sets the rotation. The deltas are in 1/4096 of a block.
+     */
+    @AsyncSafe
+    PacketWrapper buildEntityMoveRotatePacket(int entityId, short dx, short dy, short dz, float yaw, float pitch, boolean onGround);
+
+    /**
+     * Builds a packet that turns the player receiving it toward an entity, looking at the entity as if it stood at the location.
+     */
+    @AsyncSafe
     PacketWrapper buildEntityLookAtPacket(int entityId, @NotNull Location location);
 
+    /**
+     * Builds the rotation and head rotation that turn an entity toward a target. Nothing is read from the world, so this
+     * can be called from any thread.
+     * @param eyes The location of the entity's eyes
+     */
+    @AsyncSafe
+    default PacketBundle buildEntityFacePacket(int entityId, @NotNull Location eyes, @NotNull Location target, boolean onGround) {
+        double dx = target.getX() - eyes.getX();
+        double dz = target.getZ() - eyes.getZ();
+        float yaw = yawTowards(dx, dz);
+        float pitch = pitchTowards(dx, target.getY() - eyes.getY(), dz);
+        return PacketBundle.of(buildEntityRotatePacket(entityId, yaw, pitch, onGround), buildEntityRotateHeadPacket(entityId, yaw));
+    }
+
+    /**
+     * Builds a single bundle that turns every entity toward the same target, such as a crowd of NPCs facing a player.
+     * A bundle holds at most {@link PacketBundle#MAX_SIZE} packets, so this supports up to half as many entities.
+     * @param eyes The location of the eyes of each entity, by entity id
+     * @throws IllegalArgumentException If there are too many entities for one bundle
+     */
+    @AsyncSafe
+    default PacketBundle buildEntityFacePackets(@NotNull Int2ObjectMap<Location> eyes, @NotNull Location target, boolean onGround) {
+        if (eyes.size() * 2 > PacketBundle.MAX_SIZE) {
+            throw new IllegalArgumentException("Can't turn more than " + PacketBundle.MAX_SIZE / 2 + " entities in one bundle, got " + eyes.size());
+        }
+        List<PacketWrapper> packets = new ArrayList<>(eyes.size() * 2);
+        for (Int2ObjectMap.Entry<Location> entry : Int2ObjectMaps.fastIterable(eyes)) {
+            Location location = entry.getValue();
+            double dx = target.getX() - location.getX();
+            double dz = target.getZ() - location.getZ();
+            float yaw = yawTowards(dx, dz);
+            float pitch = pitchTowards(dx, target.getY() - location.getY(), dz);
+            packets.add(buildEntityRotatePacket(entry.getIntKey(), yaw, pitch, onGround));
+            packets.add(buildEntityRotateHeadPacket(entry.getIntKey(), yaw));
+        }
+        return new PacketBundle(packets);
+    }
+
+    private static float yawTowards(double dx, double dz) {
+        return (float) Math.toDegrees(Math.atan2(-dx, dz));
+    }
+
+    private static float pitchTowards(double dx, double dy, double dz) {
+        return (float) -Math.toDegrees(Math.atan2(dy, Math.sqrt(dx * dx + dz * dz)));
+    }
+
+    @AsyncSafe
     default PacketWrapper buildEntityRotatePacket(int entityId, Location location, boolean onGround) {
         return buildEntityRotatePacket(entityId, location.getYaw(), location.getPitch(), onGround);
     }
+    @AsyncSafe
     PacketWrapper buildEntityRotatePacket(int entityId, float originalYaw, float pitch, boolean onGround);
 
+    @AsyncSafe
     default PacketWrapper buildEntityRotateHeadPacket(int entityId, @NotNull Location location) {
         return buildEntityRotateHeadPacket(entityId, location.getYaw());
     }
+    @AsyncSafe
     PacketWrapper buildEntityRotateHeadPacket(int entityId, float yaw);
 
+    @AsyncSafe
     PacketWrapper buildEntityMountPacket(int mountId, int[] passengerIds);
 
+    @AsyncSafe
     PacketWrapper buildEntityLeashPacket(int leashEntity, int entityId);
 
+    @AsyncSafe
     PacketWrapper buildEntityTeleportPacket(int entityId,
                                             double x,
                                             double y,
@@ -43,8 +139,10 @@ public interface NMSPacketBuilder {
                                             float pitch,
                                             boolean onGround);
 
+    @AsyncSafe
     PacketWrapper buildEntityCameraPacket(int entityId);
 
+    @AsyncSafe
     default PacketWrapper buildEntitySpawnPacket(
             int entityId,
             @NotNull UUID uuid,
@@ -53,6 +151,7 @@ public interface NMSPacketBuilder {
     ) {
         return buildEntitySpawnPacket(entityId, uuid, entityType, location.x(), location.y(), location.z(), location.getYaw(), location.getPitch());
     }
+    @AsyncSafe
     PacketWrapper buildEntitySpawnPacket(
             int entityId,
             @NotNull UUID uuid,
@@ -64,25 +163,54 @@ public interface NMSPacketBuilder {
             float pitch
     );
 
+    /**
+     * @deprecated Only supports byte, float and integer values, use {@link #buildEntityMetadataPacket(int, EntityMetadata)}
+     */
+    @Deprecated
+    @AsyncSafe
     PacketWrapper buildEntityMetadataPacket(int entityId, Map<Integer, Number> dataValues);
 
+    /**
+     * Builds a metadata packet from the current values of the metadata. The metadata can be changed or reused afterward.
+     */
+    @AsyncSafe
+    PacketWrapper buildEntityMetadataPacket(int entityId, @NotNull EntityMetadata metadata);
+
+    /**
+     * Returns the entity data index of a field on this server version.
+     */
+    @AsyncSafe
+    int getMetadataIndex(@NotNull MetadataField field);
+
+    @AsyncSafe
     PacketWrapper buildEntityDestroyPacket(IntList entityIds);
 
+    @AsyncSafe
     PacketWrapper buildEntityAttributePacket(
             int entityId,
             Attribute attribute,
             double value
     );
 
+    @AsyncSafe
     PacketWrapper buildEntityEquipmentSlotUpdatePacket(
             int entityId,
             @NotNull Map<EquipmentSlot, ItemStack> equipment
     );
 
+    /**
+     * Reads the item in the slot, and takes the next state id of the player's inventory.
+     */
+    @MainThreadOnly
     PacketWrapper buildPlayerSlotUpdatePacket(Player player, int slot);
 
+    @AsyncSafe
     PacketWrapper buildPlayerGamemodeChangePacket(@NotNull GameMode gameMode);
 
+    /**
+     * Reads the skin and chat session of the skinned player.
+     */
+    @MainThreadOnly
     PacketWrapper buildPlayerInfoAddPacket(
             @NotNull final Player skinnedPlayer,
             final int entityId,
@@ -90,9 +218,29 @@ public interface NMSPacketBuilder {
             @NotNull final String npcName
     );
 
+    @AsyncSafe
     PacketWrapper buildPlayerInfoRemovePacket(List<UUID> uuids);
 
+    @AsyncSafe
     PacketWrapper buildPlayerScoreboardRemovePacket(Player player, String name);
+    @AsyncSafe
     PacketWrapper buildPlayerScoreboardCreatePacket(Player player, String name);
+    @AsyncSafe
     PacketWrapper buildPlayerScoreboardAddPlayersPacket(Player player, String name);
+
+    /**
+     * Builds a packet that creates a team on the client with the given entries, without a team on the server.
+     * @see me.lojosho.hibiscuscommons.packets.team.PacketTeamManager
+     */
+    @AsyncSafe
+    PacketWrapper buildTeamCreatePacket(@NotNull String team, @NotNull Team.OptionStatus nameTagVisibility, @NotNull Team.OptionStatus collision, @NotNull Collection<String> entries);
+
+    /**
+     * Builds a packet that adds entries to, or removes entries from, a team on the client.
+     */
+    @AsyncSafe
+    PacketWrapper buildTeamEntriesPacket(@NotNull String team, @NotNull Collection<String> entries, boolean add);
+
+    @AsyncSafe
+    PacketWrapper buildTeamRemovePacket(@NotNull String team);
 }
@@ -1,7 +1,9 @@
 package me.lojosho.hibiscuscommons.nms;
 
+import me.lojosho.hibiscuscommons.config.GlobalSettings;
 import me.lojosho.hibiscuscommons.packets.wrapper.PacketWrapper;
 import org.bukkit.entity.Player;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
@@ -13,4 +15,40 @@ public interface NMSPacketSender {
     void sendBundle(@NotNull List<PacketWrapper> wrappers, @NotNull Player... players);
     void sendBundle(@NotNull List<PacketWrapper> wrappers, @NotNull List<Player> players);
 
+    /**
+     * Sends a packet to many players, serializing it only once instead of once per player. Compression and encryption are
+     * still applied per connection. Players whose connection needs its own encoding, such as with protocol translation,
+     * get the packet the regular way.
+     * <p>
+     * The serialized packet skips every packet listener in the pipeline, including packet interfaces, so only use this
+     * for packets that nothing needs to intercept.
+     */
+    void broadcastPacket(@NotNull PacketWrapper wrapper, @NotNull List<Player> players);
+
+    /**
+     * Writes a packet without flushing the connections, see {@link me.lojosho.hibiscuscommons.packets.PacketQueue}.
+     */
+    void writePacket(@NotNull PacketWrapper wrapper, @NotNull Player... players);
+    void writePacket(@NotNull PacketWrapper wrapper, @NotNull List<Player> players);
+
+    /**
+     * Flushes the packets written to a player's connection.
+     */
+    void flush(@NotNull Player player);
+
+    /**
+     * Checks the direct encoders against the server's codec, see {@link GlobalSettings#isDirectEncoding()}. Called once on
+     * the main thread at startup, packets are serialized the regular way until then.
+     */
+    @ApiStatus.Internal
+    void verifyDirectEncoding();
+
+    /**
+     * Creates a native bundle packet out of the wrappers. Use {@link me.lojosho.hibiscuscommons.packets.wrapper.PacketBundle}
+     * to keep the bundle around and send it more than once.
+     * @param wrappers The packets in the bundle
+     * @return The native bundle packet
+     */
+    Object createBundlePacket(@NotNull List<PacketWrapper> wrappers);
+
 }
@@ -13,6 +13,14 @@ public interface NMSUtils {
 
     int getNextEntityId();
 
+    /**
+     * Takes a block of consecutive entity ids from the server's counter at once.
+     * @return The first id of the block, or -1 if the counter can't be reached and ids have to be taken one at a time
+     */
+    default int reserveEntityIds(int count) {
+        return -1;
+    }
+
     Entity getEntity(int entityId);
 
     @Nullable
@@ -24,6 +32,22 @@ public interface NMSUtils {
 
     }
 
+    default void handleChannelClose(@NotNull Player player) {
+
+    }
+
+    /**
+     * Registers a hook that adds the packet handler while a connection is set up, so every play packet is intercepted.
+     * @return True if the hook was registered, false if the handler has to be added through {@link #handleChannelOpen(Player)}
+     */
+    default boolean registerChannelInitializer() {
+        return false;
+    }
+
+    default void unregisterChannelInitializer() {
+
+    }
+
     void sendToastAdvancement(Player player, ItemStack icon, Component title, Component description);
 
 }
@@ -0,0 +1,17 @@
+package me.lojosho.hibiscuscommons.packets;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The method can be called from any thread, such as from a {@link PacketPipeline} task. It doesn't read or change
+ * anything on the server after the packet is built.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface AsyncSafe {
+}
@@ -0,0 +1,29 @@
+package me.lojosho.hibiscuscommons.packets;
+
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+
+/**
+ * Collects the entities to destroy for each viewer, and sends them in as few destroy packets as possible. A player with
+ * six cosmetic parts leaving a hundred viewers costs a hundred packets, not six hundred.
+ * <p>
+ * The destroys are kept in the {@link PacketQueue} in the order they were called in, so destroying an entity and then
+ * spawning it again in the same tick still shows it. See {@link PacketQueue#queueDestroy(Player, int...)} for when
+ * destroys are sent together.
+ */
+public class EntityDestroyAggregator {
+
+    public static void destroy(@NotNull Player viewer, int entityId) {
+        PacketQueue.queueDestroy(viewer, entityId);
+    }
+
+    public static void destroy(@NotNull Player viewer, @NotNull int... entityIds) {
+        PacketQueue.queueDestroy(viewer, entityIds);
+    }
+
+    public static void destroy(@NotNull Collection<Player> viewers, @NotNull int... entityIds) {
+        for (Player viewer : viewers) destroy(viewer, entityIds);
+    }
+}
@@ -0,0 +1,165 @@
+package me.lojosho.hibiscuscommons.packets;
+
+import lombok.Getter;
+import me.lojosho.hibiscuscommons.nms.NMSHandlers;
+import me.lojosho.hibiscuscommons.nms.NMSPacketBuilder;
+import me.lojosho.hibiscuscommons.packets.wrapper.PacketWrapper;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Remembers the position and rotation each viewer was last sent for one packet entity, and moves the entity with the
+ * smallest packet that gets the viewer to the new location: a relative move, a relative move with rotation, a rotation,
+ * or a teleport when the move is too large for a relative move.
+ * <p>
+ * Positions are tracked the way the client stores them, so relative moves don't add up rounding errors. A teleport is
+ * still sent every {@link #getSyncInterval()} updates, which corrects anything the client got out of sync on its own.
+ */
+public class EntityPositionTracker {
+
+    public static final int DEFAULT_SYNC_INTERVAL = 100;
+
+    @Getter
+    private final int entityId;
+    @Getter
+    private final int syncInterval;
+    private final Map<UUID, Viewer> viewers = new HashMap<>();
+
+    public EntityPositionTracker(int entityId) {
+        this(entityId, DEFAULT_SYNC_INTERVAL);
+    }
+
+    public EntityPositionTracker(int entityId, int syncInterval) {
+        this.entityId = entityId;
+        this.syncInterval = Math.max(1, syncInterval);
+    }
+
+    /**
+     * Sets where a viewer sees the entity, such as after spawning it for them.
+     */
+    public synchronized void setPosition(@NotNull Player viewer, @NotNull Location location) {
+        viewers.put(viewer.getUniqueId(), new Viewer(viewer, SentPosition.of(location)));
+    }
+
+    public synchronized void removeViewer(@NotNull Player viewer) {
+        viewers.remove(viewer.getUniqueId());
+    }
+
+    public synchronized boolean isTracking(@NotNull Player viewer) {
+        return viewers.containsKey(viewer.getUniqueId());
+    }
+
+    public synchronized void clear() {
+        viewers.clear();
+    }
+
+    /**
+     * Returns the packet that moves the entity to the location for one viewer. The viewer is assumed to get the packet.
+     * @return The packet, or null if the viewer isn't tracked or nothing the client can see changed
+     */
+    @Nullable
+    public synchronized PacketWrapper update(@NotNull Player viewer, @NotNull Location to, boolean onGround) {
+        Viewer tracked = viewers.get(viewer.getUniqueId());
+        if (tracked == null) return null;
+        Update update = computeUpdate(tracked.sent, to, onGround);
+        tracked.sent = update.position;
+        return update.packet;
+    }
+
+    /**
+     * Moves the entity to the location for every tracked viewer. Viewers that were sent the same position share a packet.
+     * The packets are sent through the normal pipeline, so packet interfaces and other plugins still see them.
+     */
+    public void move(@NotNull Location to, boolean onGround) {
+        Map<PacketWrapper, List<Player>> recipients = new IdentityHashMap<>();
+        synchronized (this) {
+            Map<SentPosition, Update> updates = new HashMap<>();
+            for (Viewer viewer : viewers.values()) {
+                Update update = updates.computeIfAbsent(viewer.sent, sent -> computeUpdate(sent, to, onGround));
+                viewer.sent = update.position;
+                if (update.packet != null) recipients.computeIfAbsent(update.packet, packet -> new ArrayList<>()).add(viewer.player);
+            }
+        }
+        for (Map.Entry<PacketWrapper, List<Player>> entry : recipients.entrySet()) {
+            entry.getKey().sendPacket(entry.getValue());
+        }
+    }
+
+    private Update computeUpdate(SentPosition sent, Location to, boolean onGround) {
+        NMSPacketBuilder builder = NMSHandlers.getHandler().getPacketBuilder();
+        SentPosition target = SentPosition.of(to);
+        long dx = target.x - sent.x;
+        long dy = target.y - sent.y;
+        long dz = target.z - sent.z;
+
+        if (sent.updates + 1 >= syncInterval || !fitsRelativeMove(dx) || !fitsRelativeMove(dy) || !fitsRelativeMove(dz)) {
+            PacketWrapper teleport = builder.buildEntityTeleportPacket(entityId, to.getX(), to.getY(), to.getZ(), to.getYaw(), to.getPitch(), onGround);
+            return new Update(target, teleport);
+        }
+
+        boolean moved = dx != 0 || dy != 0 || dz != 0;
+        boolean rotated = target.yaw != sent.yaw || target.pitch != sent.pitch;
+        SentPosition next = target.afterUpdates(sent.updates + 1);
+        if (moved && rotated) {
+            return new Update(next, builder.buildEntityMoveRotatePacket(entityId, (short) dx, (short) dy, (short) dz, to.getYaw(), to.getPitch(), onGround));
+        } else if (moved) {
+            return new Update(next, builder.buildEntityMovePacket(entityId, (short) dx, (short) dy, (short) dz, onGround));
+        } else if (rotated) {
+            return new Update(next, builder.buildEntityRotatePacket(entityId, to.getYaw(), to.getPitch(), onGround));
+        }
+        return new Update(sent, null);
+    }
+
+    /**
+     * Converts a coordinate to the fixed point value the client keeps for entities, in 1/4096 of a block.
+     * The difference between two of these is what a relative move sends.
+     */
+    public static long encodeCoordinate(double coordinate) {
+        return Math.round(coordinate * 4096.0);
+    }
+
+    /**
+     * Converts an angle in degrees to the byte sent in movement packets.
+     */
+    public static byte encodeAngle(float degrees) {
+        return (byte) (degrees * 256.0F / 360.0F);
+    }
+
+    public static boolean fitsRelativeMove(long delta) {
+        return delta == (short) delta;
+    }
+
+    private static class Viewer {
+
+        private final Player player;
+        private SentPosition sent;
+
+        private Viewer(Player player, SentPosition sent) {
+            this.player = player;
+            this.sent = sent;
+        }
+    }
+
+    private record SentPosition(long x, long y, long z, byte yaw, byte pitch, int updates) {
+
+        private static SentPosition of(Location location) {
+            return new SentPosition(encodeCoordinate(location.getX()), encodeCoordinate(location.getY()), encodeCoordinate(location.getZ()),
+                    encodeAngle(location.getYaw()), encodeAngle(location.getPitch()), 0);
+        }
+
+        private SentPosition afterUpdates(int updates) {
+            return new SentPosition(x, y, z, yaw, pitch, updates);
+        }
+    }
+
+    private record Update(SentPosition position, @Nullable PacketWrapper packet) {}
+}
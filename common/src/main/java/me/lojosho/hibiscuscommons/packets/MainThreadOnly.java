@@ -0,0 +1,17 @@
+package me.lojosho.hibiscuscommons.packets;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The method reads live server state, so it has to be called on the thread that owns that state: the main thread, or
+ * the region thread of the player on Folia. The packet it returns captures that state, and can be sent from any thread.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface MainThreadOnly {
+}
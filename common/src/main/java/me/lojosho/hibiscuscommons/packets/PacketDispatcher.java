@@ -0,0 +1,109 @@
+package me.lojosho.hibiscuscommons.packets;
+
+import me.lojosho.hibiscuscommons.config.GlobalSettings;
+import me.lojosho.hibiscuscommons.packets.metrics.PacketMetrics;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Hands intercepted packets to the subscribed {@link PacketInterface}s. Used by the packet channel of every version.
+ */
+@ApiStatus.Internal
+public class PacketDispatcher {
+
+    /**
+     * A {@link PacketInterface} method, such as {@code PacketInterface::writeContainerContent}.
+     * Pass a method reference so no object is allocated per packet.
+     */
+    @FunctionalInterface
+    public interface HandlerMethod<W> {
+        PacketAction handle(@NotNull PacketInterface packetInterface, @NotNull Player player, @NotNull W wrapper);
+    }
+
+    /**
+     * Records that a packet was intercepted and checks if anyone is subscribed to it.
+     * @param type The packet type
+     * @return True if the packet should be converted and dispatched, false if it can be forwarded untouched
+     */
+    public static boolean shouldDispatch(@NotNull PacketHandlerType type) {
+        PacketMetrics.recordSeen(type);
+        return PacketSubscriptions.isSubscribed(type);
+    }
+
+    /**
+     * Records that a packet about an entity or window was intercepted and checks if anyone is subscribed to it.
+     * @param type The packet type
+     * @param id The entity or window id, depending on {@link PacketHandlerType#getScope()}
+     * @return True if the packet should be converted and dispatched, false if it can be forwarded untouched
+     */
+    public static boolean shouldDispatch(@NotNull PacketHandlerType type, int id) {
+        PacketMetrics.recordSeen(type);
+        return PacketSubscriptions.isSubscribed(type, id);
+    }
+
+    /**
+     * Calls every subscribed packet interface in priority order. Stops as soon as one cancels the packet.
+     * Handlers that throw or are tripped by the watchdog are skipped.
+     * @param type The packet type
+     * @param player The player the packet is sent to or received from
+     * @param wrapper The packet wrapper
+     * @param method The packet interface method to call
+     * @return {@link PacketAction#CANCELLED} if any handler cancelled, {@link PacketAction#CHANGED} if any handler
+     * changed the wrapper, otherwise {@link PacketAction#NOTHING}
+     */
+    @NotNull
+    public static <W> PacketAction dispatch(@NotNull PacketHandlerType type, @NotNull Player player, @NotNull W wrapper, @NotNull HandlerMethod<W> method) {
+        return dispatch(type, false, 0, player, wrapper, method);
+    }
+
+    /**
+     * Calls every subscribed packet interface that has the entity or window in its scope, see
+     * {@link #dispatch(PacketHandlerType, Player, Object, HandlerMethod)}.
+     * @param id The entity or window id, depending on {@link PacketHandlerType#getScope()}
+     */
+    @NotNull
+    public static <W> PacketAction dispatch(@NotNull PacketHandlerType type, int id, @NotNull Player player, @NotNull W wrapper, @NotNull HandlerMethod<W> method) {
+        return dispatch(type, true, id, player, wrapper, method);
+    }
+
+    private static <W> PacketAction dispatch(PacketHandlerType type, boolean scoped, int id, Player player, W wrapper, HandlerMethod<W> method) {
+        final boolean timed = PacketMetrics.isTimingEnabled();
+        final long dispatchStart = timed ? System.nanoTime() : 0;
+
+        PacketAction action = PacketAction.NOTHING;
+        final boolean watched = GlobalSettings.isWatchdogEnabled();
+        for (PacketHandler handler : PacketSubscriptions.getHandlers(type)) {
+            if (scoped && !handler.isInScope(id)) continue;
+            if (watched && handler.isTripped()) continue;
+
+            final long start = timed || watched ? System.nanoTime() : 0;
+            final PacketWatchdog.Call call = watched ? PacketWatchdog.enter(handler, start) : null;
+            PacketAction pluginAction;
+            try {
+                pluginAction = method.handle(handler.getPacketInterface(), player, wrapper);
+            } catch (Exception | LinkageError e) {
+                // A broken handler must not drop the packet or kill the connection
+                handler.recordFailure(e);
+                continue;
+            } finally {
+                PacketWatchdog.exit(call);
+            }
+
+            if (timed || watched) {
+                final long nanos = System.nanoTime() - start;
+                if (timed) handler.getTimings().record(nanos);
+                if (watched) handler.recordCall(nanos);
+            }
+
+            if (pluginAction == PacketAction.CANCELLED) {
+                action = PacketAction.CANCELLED;
+                break;
+            }
+            if (pluginAction == PacketAction.CHANGED) action = PacketAction.CHANGED;
+        }
+
+        PacketMetrics.recordDispatch(type, action, timed ? System.nanoTime() - dispatchStart : -1);
+        return action;
+    }
+}
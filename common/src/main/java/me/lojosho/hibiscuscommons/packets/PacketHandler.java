@@ -0,0 +1,115 @@
+package me.lojosho.hibiscuscommons.packets;
+
+import lombok.Getter;
+import me.lojosho.hibiscuscommons.HibiscusCommonsPlugin;
+import me.lojosho.hibiscuscommons.HibiscusPlugin;
+import me.lojosho.hibiscuscommons.config.GlobalSettings;
+import me.lojosho.hibiscuscommons.packets.metrics.LatencyHistogram;
+import me.lojosho.hibiscuscommons.packets.metrics.PacketMetrics;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * A {@link PacketInterface} registered for a single packet type, along with the plugin it belongs to.
+ * <p>
+ * Handlers that are too slow or throw too many times in a row are tripped: they are skipped, and the packet passes through
+ * them untouched, until the configured cool-down is over.
+ */
+public class PacketHandler {
+
+    private static final long REPORT_INTERVAL = TimeUnit.SECONDS.toNanos(10);
+
+    @Getter
+    private final HibiscusPlugin plugin;
+    @Getter
+    private final PacketInterface packetInterface;
+    @Getter
+    private final PacketHandlerType type;
+    @Getter
+    private final LatencyHistogram timings;
+    @Getter
+    @Nullable
+    private final PacketScope scope;
+
+    private final AtomicInteger strikes = new AtomicInteger();
+    private volatile long trippedUntil;
+    private volatile boolean tripped;
+    private volatile long lastReport;
+
+    public PacketHandler(@NotNull HibiscusPlugin plugin, @NotNull PacketInterface packetInterface, @NotNull PacketHandlerType type) {
+        this.plugin = plugin;
+        this.packetInterface = packetInterface;
+        this.type = type;
+        this.timings = PacketMetrics.getTimings(plugin.getName(), type);
+        this.scope = switch (type.getScope()) {
+            case ENTITY -> packetInterface.getEntityScope();
+            case WINDOW -> packetInterface.getWindowScope();
+            case NONE -> null;
+        };
+    }
+
+    /**
+     * Checks if the handler wants packets about an entity or window.
+     * @param id The entity or window id, depending on {@link PacketHandlerType#getScope()}
+     * @return True if the handler has no scope or the id is in it
+     */
+    public boolean isInScope(int id) {
+        return scope == null || scope.contains(id);
+    }
+
+    /**
+     * Checks if the handler is tripped. Re-enables the handler once its cool-down is over.
+     * @return True if packets should pass through this handler untouched
+     */
+    public boolean isTripped() {
+        if (!tripped) return false;
+        if (System.nanoTime() - trippedUntil < 0) return true;
+        tripped = false;
+        strikes.set(0);
+        HibiscusCommonsPlugin.getInstance().getLogger().info("Re-enabled " + describe() + " after its cool-down.");
+        return false;
+    }
+
+    void recordCall(long nanos) {
+        if (nanos > GlobalSettings.getWatchdogBudgetNanos()) {
+            strike("took " + TimeUnit.NANOSECONDS.toMicros(nanos) + "us", null);
+        } else if (strikes.get() != 0) {
+            strikes.set(0);
+        }
+    }
+
+    void recordFailure(@NotNull Throwable throwable) {
+        strike("threw " + throwable, throwable);
+    }
+
+    /**
+     * Limits how often slow calls of this handler are logged.
+     */
+    boolean shouldReport(long now) {
+        long last = lastReport;
+        if (last != 0 && now - last < REPORT_INTERVAL) return false;
+        lastReport = now;
+        return true;
+    }
+
+    private void strike(@NotNull String reason, @Nullable Throwable throwable) {
+        if (throwable != null && shouldReport(System.nanoTime())) {
+            HibiscusCommonsPlugin.getInstance().getLogger().log(Level.WARNING, "An error occurred in " + describe() + ", the packet was passed through untouched.", throwable);
+        }
+        // Without the watchdog, tripped handlers are still called, so failures are only logged
+        if (!GlobalSettings.isWatchdogEnabled()) return;
+        if (strikes.incrementAndGet() < GlobalSettings.getWatchdogStrikes() || tripped) return;
+        trippedUntil = System.nanoTime() + GlobalSettings.getWatchdogCooldownNanos();
+        tripped = true;
+        HibiscusCommonsPlugin.getInstance().getLogger().warning("Disabled " + describe() + " for " + TimeUnit.NANOSECONDS.toSeconds(GlobalSettings.getWatchdogCooldownNanos())
+                + " seconds after " + strikes.get() + " slow or failing calls in a row (last one " + reason + ").");
+    }
+
+    private String describe() {
+        return plugin.getName() + " " + type.getMethodName();
+    }
+}
@@ -0,0 +1,52 @@
+package me.lojosho.hibiscuscommons.packets;
+
+import lombok.Getter;
+import me.lojosho.hibiscuscommons.packets.data.*;
+
+/**
+ * The packets that can be intercepted through a {@link PacketInterface}. Each type maps to the
+ * {@link PacketInterface} method that handles it.
+ */
+public enum PacketHandlerType {
+    CONTAINER_CONTENT("writeContainerContent", ContainerContentWrapper.class, Scope.WINDOW),
+    SLOT_CONTENT("writeSlotContent", SlotContentWrapper.class, Scope.WINDOW),
+    EQUIPMENT_CONTENT("writeEquipmentContent", EntityEquipmentWrapper.class, Scope.ENTITY),
+    PASSENGER_CONTENT("writePassengerContent", PassengerWrapper.class, Scope.ENTITY),
+    INVENTORY_CLICK("readInventoryClick", InventoryClickWrapper.class, Scope.WINDOW),
+    PLAYER_ACTION("readPlayerAction", PlayerActionWrapper.class, Scope.NONE),
+    PLAYER_ARM("readPlayerArm", PlayerSwingWrapper.class, Scope.NONE),
+    PLAYER_SCALE("readPlayerScale", PlayerScaleWrapper.class, Scope.ENTITY),
+    ENTITY_HANDLE("readEntityHandle", PlayerInteractWrapper.class, Scope.ENTITY),
+    ;
+
+    @Getter
+    private final String methodName;
+    @Getter
+    private final Class<?> wrapperClass;
+    @Getter
+    private final Scope scope;
+
+    PacketHandlerType(String methodName, Class<?> wrapperClass, Scope scope) {
+        this.methodName = methodName;
+        this.wrapperClass = wrapperClass;
+        this.scope = scope;
+    }
+
+    /**
+     * What a {@link PacketScope} of this packet type is matched against.
+     */
+    public enum Scope {
+        /**
+         * The packet can not be scoped.
+         */
+        NONE,
+        /**
+         * The packet is scoped by the id of the entity it is about, see {@link PacketInterface#getEntityScope()}.
+         */
+        ENTITY,
+        /**
+         * The packet is scoped by the id of the window it is about, see {@link PacketInterface#getWindowScope()}.
+         */
+        WINDOW
+    }
+}
@@ -3,9 +3,49 @@ package me.lojosho.hibiscuscommons.packets;
 import me.lojosho.hibiscuscommons.packets.data.*;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public interface PacketInterface {
 
+    /**
+     * The order this packet interface is called in compared to other plugins. Once a packet is cancelled,
+     * packet interfaces after it are no longer called.
+     * @return The priority of this packet interface
+     */
+    default PacketPriority getPriority() {
+        return PacketPriority.NORMAL;
+    }
+
+    /**
+     * Whether {@link #writeEquipmentContent(Player, EntityEquipmentWrapper)} rewrites equipment the same way for every
+     * viewer. When all subscribed plugins say so, an equipment packet sent to many viewers is only rewritten once and the
+     * result is shared, so the player passed in is just the first viewer.
+     * @return True if the equipment rewrite does not depend on the viewer
+     */
+    default boolean isEquipmentViewerIndependent() {
+        return false;
+    }
+
+    /**
+     * Limits the entity packets this packet interface receives (equipment, passengers, scale and interactions) to the
+     * entities in the scope. Packets about other entities are not converted for this packet interface at all.
+     * @return The entities to receive packets for, or null to receive them for every entity
+     */
+    @Nullable
+    default PacketScope getEntityScope() {
+        return null;
+    }
+
+    /**
+     * Limits the window packets this packet interface receives (container contents, slots and clicks) to the windows in
+     * the scope.
+     * @return The windows to receive packets for, or null to receive them for every window
+     */
+    @Nullable
+    default PacketScope getWindowScope() {
+        return null;
+    }
+
     default PacketAction writeContainerContent(@NotNull Player player, @NotNull ContainerContentWrapper wrapper) {
         return PacketAction.NOTHING;
     }
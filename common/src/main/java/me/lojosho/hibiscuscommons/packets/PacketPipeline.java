@@ -0,0 +1,99 @@
+package me.lojosho.hibiscuscommons.packets;
+
+import me.lojosho.hibiscuscommons.config.GlobalSettings;
+import me.lojosho.hibiscuscommons.packets.wrapper.PacketWrapper;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Builds and sends packets on worker threads, so packets that take work to compute, like cosmetics that look different
+ * to every viewer, don't have to be computed on the tick thread. Builders run in parallel, and may only use builders
+ * marked {@link AsyncSafe}; anything {@link MainThreadOnly} has to be built beforehand and captured.
+ * <p>
+ * Packets are written without flushing, and go out with the next connection flush, see {@link PacketQueue}. A builder
+ * may return null to send nothing. If it throws, the returned future completes with the exception.
+ */
+public class PacketPipeline {
+
+    private static volatile ExecutorService executor;
+
+    /**
+     * Builds one packet on a worker thread and sends it to the viewers.
+     */
+    @NotNull
+    public static CompletableFuture<Void> submit(@NotNull Collection<Player> viewers, @NotNull Supplier<? extends PacketWrapper> builder) {
+        List<Player> recipients = List.copyOf(viewers);
+        return CompletableFuture.runAsync(() -> {
+            PacketWrapper packet = builder.get();
+            if (packet == null) return;
+            List<Player> online = new ArrayList<>(recipients.size());
+            for (Player viewer : recipients) {
+                if (viewer.isOnline()) online.add(viewer);
+            }
+            if (!online.isEmpty()) packet.writePacket(online);
+        }, getExecutor());
+    }
+
+    /**
+     * Builds a packet for every viewer, in parallel on the worker threads, and sends each to its viewer.
+     */
+    @NotNull
+    public static CompletableFuture<Void> submitForEach(@NotNull Collection<Player> viewers, @NotNull Function<Player, ? extends PacketWrapper> builder) {
+        ExecutorService executor = getExecutor();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[viewers.size()];
+        int i = 0;
+        for (Player viewer : viewers) {
+            futures[i++] = CompletableFuture.runAsync(() -> {
+                if (!viewer.isOnline()) return;
+                PacketWrapper packet = builder.apply(viewer);
+                if (packet != null) packet.writePacket(viewer);
+            }, executor);
+        }
+        return CompletableFuture.allOf(futures);
+    }
+
+    @ApiStatus.Internal
+    public static void start() {
+        stop();
+        AtomicInteger count = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(GlobalSettings.getBuildThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "HibiscusCommons Packet Builder #" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Stops the worker threads, giving the packets that are being built a moment to finish.
+     */
+    @ApiStatus.Internal
+    public static void stop() {
+        if (executor == null) return;
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor.shutdownNow();
+        executor = null;
+    }
+
+    private static ExecutorService getExecutor() {
+        ExecutorService executor = PacketPipeline.executor;
+        if (executor == null) throw new IllegalStateException("The packet pipeline is not running");
+        return executor;
+    }
+}
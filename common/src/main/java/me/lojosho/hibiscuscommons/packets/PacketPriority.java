@@ -0,0 +1,13 @@
+package me.lojosho.hibiscuscommons.packets;
+
+/**
+ * The order packet interfaces are called in. Lower priorities are called first, leaving the final say over a
+ * packet to the highest priority.
+ */
+public enum PacketPriority {
+    LOWEST,
+    LOW,
+    NORMAL,
+    HIGH,
+    HIGHEST,
+}
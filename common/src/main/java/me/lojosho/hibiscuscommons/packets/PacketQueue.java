@@ -0,0 +1,248 @@
+package me.lojosho.hibiscuscommons.packets;
+
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import me.lojosho.hibiscuscommons.HibiscusCommonsPlugin;
+import me.lojosho.hibiscuscommons.config.GlobalSettings;
+import me.lojosho.hibiscuscommons.nms.NMSHandlers;
+import me.lojosho.hibiscuscommons.packets.entity.VirtualEntities;
+import me.lojosho.hibiscuscommons.packets.team.PacketTeamManager;
+import me.lojosho.hibiscuscommons.packets.wrapper.CoalescingPacketWrapper;
+import me.lojosho.hibiscuscommons.packets.wrapper.PacketBundle;
+import me.lojosho.hibiscuscommons.packets.wrapper.PacketWrapper;
+import me.lojosho.hibiscuscommons.util.PlayerIndex;
+import me.lojosho.hibiscuscommons.util.SchedulerUtils;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects packets per player and sends them once per tick as a single bundle. Updates of the same entity that replace
+ * each other, such as two rotations or two metadata updates, are merged while they wait, so only the final state is sent.
+ * <p>
+ * Use {@link PacketWrapper#queuePacket(Player...)} to queue a packet. Queued packets are sent at the end of the tick on
+ * Paper, and at the start of the next tick everywhere else.
+ * <p>
+ * Queued packets and packets sent with {@link PacketWrapper#writePacket(Player...)} are written without flushing the
+ * connection. Every connection that was written to is then flushed once, every {@link GlobalSettings#getFlushInterval()} ticks.
+ */
+public class PacketQueue {
+
+    private static final int POSITION = 0;
+    private static final int ROTATION = 1;
+
+    private static final Map<UUID, PlayerQueue> QUEUES = new ConcurrentHashMap<>();
+    private static final Map<UUID, Player> UNFLUSHED = new ConcurrentHashMap<>();
+    private static int ticks = 0;
+
+    public static void queue(@NotNull PacketWrapper wrapper, @NotNull Player player) {
+        QUEUES.computeIfAbsent(player.getUniqueId(), uuid -> new PlayerQueue(player)).add(wrapper);
+    }
+
+    /**
+     * Queues the destruction of entities. Destroys queued for the player with only entity updates in between are sent as
+     * one packet, in the place of the first of them. Any other packet starts a new one, so a destroy is never sent after a
+     * spawn that was queued after it.
+     * @see EntityDestroyAggregator
+     */
+    public static void queueDestroy(@NotNull Player player, @NotNull int... entityIds) {
+        QUEUES.computeIfAbsent(player.getUniqueId(), uuid -> new PlayerQueue(player)).addDestroy(entityIds);
+    }
+
+    /**
+     * Writes every queued packet right away. The connections are flushed on the next flush interval.
+     */
+    public static void flush() {
+        for (PlayerQueue queue : QUEUES.values()) {
+            List<PacketWrapper> packets = queue.drain();
+            if (packets.isEmpty()) continue;
+            if (!queue.player.isOnline()) {
+                QUEUES.remove(queue.player.getUniqueId(), queue);
+                continue;
+            }
+            if (packets.size() == 1) {
+                packets.get(0).writePacket(queue.player);
+                continue;
+            }
+            for (int start = 0; start < packets.size(); start += PacketBundle.MAX_SIZE) {
+                new PacketBundle(packets.subList(start, Math.min(packets.size(), start + PacketBundle.MAX_SIZE))).writePacket(queue.player);
+            }
+        }
+    }
+
+    /**
+     * Marks that a packet was written to a player without flushing their connection.
+     */
+    @ApiStatus.Internal
+    public static void markUnflushed(@NotNull Player player) {
+        UNFLUSHED.putIfAbsent(player.getUniqueId(), player);
+    }
+
+    /**
+     * Flushes every connection that packets were written to since the last flush.
+     */
+    public static void flushConnections() {
+        if (UNFLUSHED.isEmpty()) return;
+        Iterator<Player> iterator = UNFLUSHED.values().iterator();
+        while (iterator.hasNext()) {
+            Player player = iterator.next();
+            iterator.remove();
+            if (player.isOnline()) NMSHandlers.getHandler().getPacketSender().flush(player);
+        }
+    }
+
+    private static void tick() {
+        PlayerIndex.tick();
+        VirtualEntities.tick();
+        PacketTeamManager.flush();
+        flush();
+        if (++ticks % GlobalSettings.getFlushInterval() == 0) flushConnections();
+    }
+
+    /**
+     * Drops the queue of a player, such as when they leave.
+     */
+    public static void clear(@NotNull Player player) {
+        QUEUES.remove(player.getUniqueId());
+        UNFLUSHED.remove(player.getUniqueId());
+    }
+
+    @ApiStatus.Internal
+    public static void start(@NotNull HibiscusCommonsPlugin plugin) {
+        if (HibiscusCommonsPlugin.isOnPaper() && !HibiscusCommonsPlugin.isOnFolia()) {
+            plugin.getServer().getPluginManager().registerEvents(new TickEndListener(), plugin);
+        } else {
+            SchedulerUtils.runTaskTimer(plugin, PacketQueue::tick, 1, 1);
+        }
+    }
+
+    /**
+     * Updates that change the same state of an entity share a slot. Teleports and moves with rotation set the rotation
+     * as well as the position, see {@link #setsRotation(PacketType)}.
+     */
+    private static int slot(@NotNull PacketType type) {
+        return switch (type) {
+            case ENTITY_MOVE, ENTITY_MOVE_ROTATE, ENTITY_TELEPORT -> POSITION;
+            case ENTITY_ROTATE -> ROTATION;
+            default -> 2 + type.ordinal();
+        };
+    }
+
+    private static boolean setsRotation(@NotNull PacketType type) {
+        return type == PacketType.ENTITY_TELEPORT || type == PacketType.ENTITY_MOVE_ROTATE;
+    }
+
+    private static long key(int entityId, int slot) {
+        return ((long) entityId << 32) | slot;
+    }
+
+    private static class PlayerQueue {
+
+        private final Player player;
+        private List<PacketWrapper> packets = new ArrayList<>();
+        // The index of the last queued update per entity and slot
+        private final Long2IntOpenHashMap latest = new Long2IntOpenHashMap();
+        // The destroy packet later destroys are added to, until a packet other than an entity update is queued
+        private PendingDestroy openDestroy;
+
+        private PlayerQueue(@NotNull Player player) {
+            this.player = player;
+            latest.defaultReturnValue(-1);
+        }
+
+        private synchronized void add(@NotNull PacketWrapper wrapper) {
+            // Every queued packet is already sent in one bundle, and bundles can't be nested
+            if (wrapper instanceof PacketBundle bundle) {
+                for (PacketWrapper packet : bundle.getWrappers()) add(packet);
+                return;
+            }
+            if (!(wrapper instanceof CoalescingPacketWrapper update)) {
+                // Nothing is known about what this packet changes, so updates before it can't be merged with updates after it
+                latest.clear();
+                openDestroy = null;
+                packets.add(wrapper);
+                return;
+            }
+
+            long key = key(update.getEntityId(), slot(update.getType()));
+            long rotationKey = key(update.getEntityId(), ROTATION);
+            boolean rotates = setsRotation(update.getType());
+            int index = latest.get(key);
+            // Merging moves the update forward, which an update that sets the rotation can't do past a later rotation
+            if (index != -1 && (!rotates || latest.get(rotationKey) <= index)) {
+                PacketWrapper merged = ((CoalescingPacketWrapper) packets.get(index)).coalesce(update);
+                if (merged != null) {
+                    packets.set(index, merged);
+                    if (rotates) latest.put(rotationKey, index);
+                    return;
+                }
+            }
+
+            latest.put(key, packets.size());
+            if (rotates) latest.put(rotationKey, packets.size());
+            packets.add(wrapper);
+        }
+
+        // Later destroys move ahead of the entity updates queued since the open destroy, the client ignores updates of removed entities
+        private synchronized void addDestroy(int[] entityIds) {
+            if (openDestroy != null) {
+                openDestroy.entityIds.addElements(openDestroy.entityIds.size(), entityIds);
+                return;
+            }
+            latest.clear();
+            openDestroy = new PendingDestroy(new IntArrayList(entityIds));
+            packets.add(openDestroy);
+        }
+
+        private synchronized List<PacketWrapper> drain() {
+            if (packets.isEmpty()) return List.of();
+            List<PacketWrapper> drained = packets;
+            packets = new ArrayList<>(drained.size());
+            latest.clear();
+            openDestroy = null;
+            for (int i = 0; i < drained.size(); i++) {
+                if (drained.get(i) instanceof PendingDestroy pending) drained.set(i, pending.build());
+            }
+            return drained;
+        }
+    }
+
+    /**
+     * Holds the place of a destroy packet in the queue while more entities are added to it.
+     */
+    private record PendingDestroy(IntArrayList entityIds) implements PacketWrapper {
+
+        private PacketWrapper build() {
+            return NMSHandlers.getHandler().getPacketBuilder().buildEntityDestroyPacket(entityIds);
+        }
+
+        @Override
+        public PacketType getType() {
+            return PacketType.ENTITY_DESTROY;
+        }
+
+        @Override
+        public Object toNativePacket() {
+            return build().toNativePacket();
+        }
+    }
+
+    private static class TickEndListener implements Listener {
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onTickEnd(ServerTickEndEvent event) {
+            tick();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package me.lojosho.hibiscuscommons.packets;
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import it.unimi.dsi.fastutil.ints.IntSets;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A set of entity or window ids a {@link PacketInterface} wants to receive packets for.
+ * <p>
+ * The ids are checked on the network threads without locking. Every change copies the set, so add ids in bulk where
+ * possible.
+ */
+public final class PacketScope {
+
+    private volatile IntSet ids = IntSets.EMPTY_SET;
+
+    public boolean contains(int id) {
+        return ids.contains(id);
+    }
+
+    public synchronized void add(int... ids) {
+        IntOpenHashSet updated = new IntOpenHashSet(this.ids);
+        boolean changed = false;
+        for (int id : ids) changed |= updated.add(id);
+        if (changed) this.ids = updated;
+    }
+
+    public synchronized void remove(int... ids) {
+        IntOpenHashSet updated = new IntOpenHashSet(this.ids);
+        boolean changed = false;
+        for (int id : ids) changed |= updated.remove(id);
+        if (changed) this.ids = updated;
+    }
+
+    public synchronized void clear() {
+        ids = IntSets.EMPTY_SET;
+    }
+
+    /**
+     * Returns a snapshot of the ids in the scope.
+     */
+    @NotNull
+    public IntSet getIds() {
+        return IntSets.unmodifiable(ids);
+    }
+}
@@ -0,0 +1,110 @@
+package me.lojosho.hibiscuscommons.packets;
+
+import me.lojosho.hibiscuscommons.HibiscusPlugin;
+import me.lojosho.hibiscuscommons.plugins.SubPlugins;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of which packets any registered {@link PacketInterface} actually handles.
+ * Packets that nobody is subscribed to are forwarded by the packet channel without being converted.
+ */
+public class PacketSubscriptions {
+
+    private static final Map<Class<?>, Set<PacketHandlerType>> HANDLED_TYPES = new ConcurrentHashMap<>();
+    private static volatile PacketHandler[][] handlers = new PacketHandler[PacketHandlerType.values().length][0];
+    private static volatile boolean equipmentViewerIndependent = false;
+
+    /**
+     * Checks if any registered plugin handles the packet type. Safe to call from any thread.
+     * @param type The packet type
+     * @return True if at least one {@link PacketInterface} overrides the handler for this type
+     */
+    public static boolean isSubscribed(@NotNull PacketHandlerType type) {
+        return handlers[type.ordinal()].length != 0;
+    }
+
+    /**
+     * Checks if any registered plugin handles the packet type for an entity or window.
+     * @param type The packet type
+     * @param id The entity or window id, depending on {@link PacketHandlerType#getScope()}
+     * @return True if at least one handler of this type has no scope or has the id in its scope
+     */
+    public static boolean isSubscribed(@NotNull PacketHandlerType type, int id) {
+        for (PacketHandler handler : handlers[type.ordinal()]) {
+            if (handler.isInScope(id)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks if every plugin that handles equipment packets rewrites them the same way for every viewer.
+     * @return True if equipment rewrites can be shared between viewers
+     * @see PacketInterface#isEquipmentViewerIndependent()
+     */
+    public static boolean isEquipmentViewerIndependent() {
+        return equipmentViewerIndependent;
+    }
+
+    /**
+     * Returns the handlers of a packet type, sorted by {@link PacketInterface#getPriority()}.
+     * The array is shared and rebuilt whenever plugins change, so it must not be modified.
+     * @param type The packet type
+     * @return The handlers to call, in order
+     */
+    @ApiStatus.Internal
+    public static PacketHandler @NotNull [] getHandlers(@NotNull PacketHandlerType type) {
+        return handlers[type.ordinal()];
+    }
+
+    /**
+     * Returns the packet types a packet interface overrides a handler for.
+     * @param packetInterface The packet interface
+     * @return The handled packet types
+     */
+    @NotNull
+    public static Set<PacketHandlerType> getHandledTypes(@NotNull PacketInterface packetInterface) {
+        return HANDLED_TYPES.computeIfAbsent(packetInterface.getClass(), PacketSubscriptions::findHandledTypes);
+    }
+
+    /**
+     * Rebuilds the subscriptions from the currently registered sub plugins.
+     */
+    @ApiStatus.Internal
+    public static void refresh() {
+        List<HibiscusPlugin> plugins = new ArrayList<>(SubPlugins.getSubPlugins());
+        // Stable sort, so plugins with the same priority keep their registration order
+        plugins.sort(Comparator.comparing(plugin -> plugin.getPacketInterface().getPriority()));
+
+        PacketHandler[][] updated = new PacketHandler[PacketHandlerType.values().length][];
+        for (PacketHandlerType type : PacketHandlerType.values()) {
+            updated[type.ordinal()] = plugins.stream()
+                    .filter(plugin -> getHandledTypes(plugin.getPacketInterface()).contains(type))
+                    .map(plugin -> new PacketHandler(plugin, plugin.getPacketInterface(), type))
+                    .toArray(PacketHandler[]::new);
+        }
+        PacketHandler[] equipmentHandlers = updated[PacketHandlerType.EQUIPMENT_CONTENT.ordinal()];
+        equipmentViewerIndependent = equipmentHandlers.length != 0
+                && Arrays.stream(equipmentHandlers).allMatch(handler -> handler.getPacketInterface().isEquipmentViewerIndependent());
+        handlers = updated;
+    }
+
+    private static Set<PacketHandlerType> findHandledTypes(Class<?> clazz) {
+        EnumSet<PacketHandlerType> handled = EnumSet.noneOf(PacketHandlerType.class);
+        for (PacketHandlerType type : PacketHandlerType.values()) {
+            try {
+                Method method = clazz.getMethod(type.getMethodName(), Player.class, type.getWrapperClass());
+                if (method.getDeclaringClass() != PacketInterface.class) handled.add(type);
+            } catch (NoSuchMethodException e) {
+                // Should never happen, but rather receive the packet than silently miss it
+                handled.add(type);
+            }
+        }
+        return Collections.unmodifiableSet(handled);
+    }
+}
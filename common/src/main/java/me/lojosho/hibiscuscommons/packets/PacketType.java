@@ -20,4 +20,7 @@ public enum PacketType {
     PLAYER_INFO_ADD,
     PLAYER_INFO_REMOVE,
     PLAYER_SCOREBOARD_HIDE_USERNAME,
+    BUNDLE,
+    ENTITY_MOVE_ROTATE,
+    SCOREBOARD_TEAM,
 }
@@ -0,0 +1,107 @@
+package me.lojosho.hibiscuscommons.packets;
+
+import me.lojosho.hibiscuscommons.HibiscusCommonsPlugin;
+import me.lojosho.hibiscuscommons.config.GlobalSettings;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Watches packet handler calls on the network threads. While a call runs past the configured budget, the stack of the
+ * network thread is sampled once so the slow code can be found; the handler itself is given a strike once it returns.
+ */
+@ApiStatus.Internal
+public class PacketWatchdog {
+
+    private static final Set<Call> CALLS = ConcurrentHashMap.newKeySet();
+    private static final ThreadLocal<Call> CURRENT = ThreadLocal.withInitial(() -> {
+        Call call = new Call(Thread.currentThread());
+        CALLS.add(call);
+        return call;
+    });
+
+    private static ScheduledExecutorService sampler;
+
+    public static void start() {
+        stop();
+        if (!GlobalSettings.isWatchdogEnabled()) return;
+        long period = Math.max(TimeUnit.MILLISECONDS.toNanos(1), GlobalSettings.getWatchdogBudgetNanos() / 2);
+        sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "HibiscusCommons Packet Watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(PacketWatchdog::sample, period, period, TimeUnit.NANOSECONDS);
+    }
+
+    public static void stop() {
+        if (sampler == null) return;
+        sampler.shutdownNow();
+        sampler = null;
+    }
+
+    /**
+     * Marks the start of a handler call on the current thread.
+     * @return The call, to be passed to {@link #exit(Call)}; null when the watchdog is disabled
+     */
+    @Nullable
+    public static Call enter(@NotNull PacketHandler handler, long start) {
+        if (sampler == null) return null;
+        Call call = CURRENT.get();
+        call.start = start;
+        call.sampled = false;
+        call.handler = handler;
+        return call;
+    }
+
+    public static void exit(@Nullable Call call) {
+        if (call != null) call.handler = null;
+    }
+
+    private static void sample() {
+        long now = System.nanoTime();
+        long budget = GlobalSettings.getWatchdogBudgetNanos();
+        Iterator<Call> iterator = CALLS.iterator();
+        while (iterator.hasNext()) {
+            Call call = iterator.next();
+            Thread thread = call.thread.get();
+            if (thread == null || !thread.isAlive()) {
+                iterator.remove();
+                continue;
+            }
+            PacketHandler handler = call.handler;
+            if (handler == null || call.sampled || now - call.start < budget) continue;
+            call.sampled = true;
+            if (!handler.shouldReport(now)) continue;
+
+            Throwable trace = new Throwable("Stack of " + thread.getName() + " " + TimeUnit.NANOSECONDS.toMicros(now - call.start) + "us into the call");
+            trace.setStackTrace(thread.getStackTrace());
+            HibiscusCommonsPlugin.getInstance().getLogger().log(Level.WARNING, handler.getPlugin().getName() + " is taking longer than "
+                    + TimeUnit.NANOSECONDS.toMicros(budget) + "us to handle " + handler.getType().getMethodName() + " on the network thread", trace);
+        }
+    }
+
+    /**
+     * The handler call currently running on a network thread. Reused for every call on that thread.
+     */
+    public static class Call {
+
+        private final WeakReference<Thread> thread;
+        private volatile PacketHandler handler;
+        private volatile long start;
+        private volatile boolean sampled;
+
+        private Call(@NotNull Thread thread) {
+            this.thread = new WeakReference<>(thread);
+        }
+    }
+}
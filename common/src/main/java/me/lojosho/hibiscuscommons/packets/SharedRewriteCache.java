@@ -0,0 +1,43 @@
+package me.lojosho.hibiscuscommons.packets;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Shares the rewrite of a packet between every viewer it is sent to. The server writes the same packet instance to all
+ * viewers of an entity, so results are keyed by packet identity and only kept for about a tick.
+ */
+@ApiStatus.Internal
+public class SharedRewriteCache {
+
+    private static final Object CANCELLED = new Object();
+    private static final Cache<Object, Object> REWRITES = CacheBuilder.newBuilder()
+            .weakKeys()
+            .expireAfterWrite(50, TimeUnit.MILLISECONDS)
+            .build();
+
+    /**
+     * Returns the rewrite of a packet, rewriting it only if no other viewer already did this tick.
+     * @param packet The packet sent to the viewer
+     * @param rewrite Rewrites the packet, returning null if it is cancelled
+     * @return The rewritten packet, or null if the packet is cancelled
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public static <P, R> R getOrRewrite(@NotNull P packet, @NotNull Function<P, R> rewrite) {
+        Object cached = REWRITES.getIfPresent(packet);
+        if (cached == null) {
+            // Two viewers might both rewrite the packet at the same time, which is fine as the results are the same
+            R rewritten = rewrite.apply(packet);
+            REWRITES.put(packet, rewritten == null ? CANCELLED : rewritten);
+            return rewritten;
+        }
+        return cached == CANCELLED ? null : (R) cached;
+    }
+}
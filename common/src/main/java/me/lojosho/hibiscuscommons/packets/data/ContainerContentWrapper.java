@@ -17,4 +17,33 @@ public class ContainerContentWrapper {
         this.windowId = windowId;
         this.slotData = slotData;
     }
+
+    /**
+     * Creates a wrapper whose slots are only converted when they are read. Items returned by
+     * {@link #getItem(int)} should be treated as read-only; use {@link #setItem(int, ItemStack)} to change a slot.
+     * @param windowId The window id
+     * @param slotData The lazily converted slots
+     */
+    public ContainerContentWrapper(@NotNull Integer windowId, @NotNull LazyItemList slotData) {
+        this.windowId = windowId;
+        this.slotData = slotData;
+    }
+
+    public ItemStack getItem(int slot) {
+        return slotData.get(slot);
+    }
+
+    public void setItem(int slot, ItemStack itemStack) {
+        slotData.set(slot, itemStack);
+    }
+
+    /**
+     * Checks if a slot has been replaced. If the slot list itself has been replaced, every slot counts as modified.
+     * @param slot The slot
+     * @return True if the slot needs to be converted back
+     */
+    public boolean isSlotModified(int slot) {
+        if (slotData instanceof LazyItemList lazyItems) return lazyItems.isModified(slot);
+        return true;
+    }
 }
@@ -14,8 +14,24 @@ public class EntityEquipmentWrapper {
     private int entityId;
     private Map<EquipmentSlot, ItemStack> armor;
 
+    /**
+     * Creates an equipment wrapper. When given a {@link LazyEquipmentMap}, slots are only converted when they are read;
+     * items read from it should be treated as read-only, use {@link Map#put(Object, Object)} to change a slot.
+     * @param entityId The entity id
+     * @param armor The equipment of the entity
+     */
     public EntityEquipmentWrapper(int entityId, @NotNull Map<EquipmentSlot, ItemStack> armor) {
         this.entityId = entityId;
         this.armor = armor;
     }
+
+    /**
+     * Checks if a slot has been put or removed. If the map itself has been replaced, every slot counts as modified.
+     * @param slot The slot
+     * @return True if the slot needs to be converted back
+     */
+    public boolean isSlotModified(@NotNull EquipmentSlot slot) {
+        if (armor instanceof LazyEquipmentMap lazyArmor) return lazyArmor.isModified(slot);
+        return true;
+    }
 }
@@ -0,0 +1,151 @@
+package me.lojosho.hibiscuscommons.packets.data;
+
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * A map of equipment that only loads a slot the first time it is read, and keeps track of which
+ * slots have been put or removed. Used by packet wrappers so untouched slots never have to be converted.
+ */
+public class LazyEquipmentMap extends AbstractMap<EquipmentSlot, ItemStack> {
+
+    private final Function<EquipmentSlot, ItemStack> loader;
+    private final EnumSet<EquipmentSlot> present;
+    private final EnumMap<EquipmentSlot, ItemStack> loaded = new EnumMap<>(EquipmentSlot.class);
+    private final EnumSet<EquipmentSlot> modified = EnumSet.noneOf(EquipmentSlot.class);
+
+    public LazyEquipmentMap(@NotNull Collection<EquipmentSlot> slots, @NotNull Function<EquipmentSlot, ItemStack> loader) {
+        this.loader = loader;
+        this.present = slots.isEmpty() ? EnumSet.noneOf(EquipmentSlot.class) : EnumSet.copyOf(slots);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof EquipmentSlot slot && present.contains(slot);
+    }
+
+    @Override
+    public ItemStack get(Object key) {
+        if (!(key instanceof EquipmentSlot slot) || !present.contains(slot)) return null;
+        ItemStack item = loaded.get(slot);
+        if (item == null && !loaded.containsKey(slot)) {
+            item = loader.apply(slot);
+            loaded.put(slot, item);
+        }
+        return item;
+    }
+
+    /**
+     * Sets the item in a slot and marks it as modified.
+     * @return The previous item if it was already read or set, otherwise null (the slot is not loaded just to return it)
+     */
+    @Override
+    @Nullable
+    public ItemStack put(@NotNull EquipmentSlot slot, ItemStack item) {
+        present.add(slot);
+        modified.add(slot);
+        return loaded.put(slot, item);
+    }
+
+    @Override
+    public ItemStack remove(Object key) {
+        if (!(key instanceof EquipmentSlot slot) || !present.remove(slot)) return null;
+        modified.add(slot);
+        return loaded.remove(slot);
+    }
+
+    @Override
+    public int size() {
+        return present.size();
+    }
+
+    @NotNull
+    @Override
+    public Set<Entry<EquipmentSlot, ItemStack>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<EquipmentSlot, ItemStack>> iterator() {
+                Iterator<EquipmentSlot> slots = present.iterator();
+                return new Iterator<>() {
+                    private EquipmentSlot last;
+
+                    @Override
+                    public boolean hasNext() {
+                        return slots.hasNext();
+                    }
+
+                    @Override
+                    public Entry<EquipmentSlot, ItemStack> next() {
+                        last = slots.next();
+                        return new LazyEntry(last);
+                    }
+
+                    @Override
+                    public void remove() {
+                        slots.remove();
+                        modified.add(last);
+                        loaded.remove(last);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return present.size();
+            }
+        };
+    }
+
+    /**
+     * @param slot The slot
+     * @return True if the slot has been read or set
+     */
+    public boolean isLoaded(@NotNull EquipmentSlot slot) {
+        return loaded.containsKey(slot);
+    }
+
+    /**
+     * @param slot The slot
+     * @return True if the slot has been put or removed
+     */
+    public boolean isModified(@NotNull EquipmentSlot slot) {
+        return modified.contains(slot);
+    }
+
+    /**
+     * @return The slots that have been put or removed
+     */
+    @NotNull
+    public Set<EquipmentSlot> getModifiedSlots() {
+        return Collections.unmodifiableSet(modified);
+    }
+
+    private class LazyEntry implements Entry<EquipmentSlot, ItemStack> {
+
+        private final EquipmentSlot slot;
+
+        private LazyEntry(EquipmentSlot slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public EquipmentSlot getKey() {
+            return slot;
+        }
+
+        @Override
+        public ItemStack getValue() {
+            return get(slot);
+        }
+
+        @Override
+        public ItemStack setValue(ItemStack value) {
+            return put(slot, value);
+        }
+    }
+}
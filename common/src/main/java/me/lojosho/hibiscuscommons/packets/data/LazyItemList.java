@@ -0,0 +1,83 @@
+package me.lojosho.hibiscuscommons.packets.data;
+
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractList;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.IntFunction;
+
+/**
+ * A fixed size list of items that only loads a slot the first time it is read, and keeps track of which
+ * slots have been replaced. Used by packet wrappers so untouched slots never have to be converted.
+ */
+public class LazyItemList extends AbstractList<ItemStack> implements RandomAccess {
+
+    private final IntFunction<ItemStack> loader;
+    private final ItemStack[] items;
+    private final boolean[] loaded;
+    private final boolean[] modified;
+    private boolean anyModified = false;
+
+    public LazyItemList(int size, @NotNull IntFunction<ItemStack> loader) {
+        this.loader = loader;
+        this.items = new ItemStack[size];
+        this.loaded = new boolean[size];
+        this.modified = new boolean[size];
+    }
+
+    @Override
+    public ItemStack get(int index) {
+        Objects.checkIndex(index, items.length);
+        if (!loaded[index]) {
+            items[index] = loader.apply(index);
+            loaded[index] = true;
+        }
+        return items[index];
+    }
+
+    /**
+     * Replaces the item in a slot and marks it as modified.
+     * @param index The slot
+     * @param item The new item
+     * @return The previous item if it was already read or set, otherwise null (the slot is not loaded just to return it)
+     */
+    @Override
+    @Nullable
+    public ItemStack set(int index, ItemStack item) {
+        Objects.checkIndex(index, items.length);
+        ItemStack previous = items[index];
+        items[index] = item;
+        loaded[index] = true;
+        modified[index] = true;
+        anyModified = true;
+        return previous;
+    }
+
+    @Override
+    public int size() {
+        return items.length;
+    }
+
+    /**
+     * @param index The slot
+     * @return True if the slot has been read or set
+     */
+    public boolean isLoaded(int index) {
+        return loaded[index];
+    }
+
+    /**
+     * @param index The slot
+     * @return True if the slot has been replaced through {@link #set(int, ItemStack)}
+     */
+    public boolean isModified(int index) {
+        return modified[index];
+    }
+
+    public boolean isAnyModified() {
+        return anyModified;
+    }
+}
@@ -1,20 +1,61 @@
 package me.lojosho.hibiscuscommons.packets.data;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.function.Supplier;
+
 @Setter @Getter
 public class SlotContentWrapper {
 
     private Integer windowId;
     private int slot;
     private ItemStack itemStack;
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    private Supplier<ItemStack> itemLoader;
+    @Setter(AccessLevel.NONE)
+    private boolean itemModified;
 
     public SlotContentWrapper(Integer windowId, Integer slot, @NotNull ItemStack itemStack) {
         this.windowId = windowId;
         this.slot = slot;
         this.itemStack = itemStack;
     }
+
+    /**
+     * Creates a wrapper whose item is only converted when it is read. The item returned by
+     * {@link #getItemStack()} should be treated as read-only; use {@link #setItemStack(ItemStack)} to change it.
+     * @param windowId The window id
+     * @param slot The slot
+     * @param itemLoader Converts the item into a Bukkit item the first time it is read
+     */
+    public SlotContentWrapper(Integer windowId, Integer slot, @NotNull Supplier<ItemStack> itemLoader) {
+        this.windowId = windowId;
+        this.slot = slot;
+        this.itemLoader = itemLoader;
+    }
+
+    public ItemStack getItemStack() {
+        if (itemLoader != null) {
+            itemStack = itemLoader.get();
+            itemLoader = null;
+        }
+        return itemStack;
+    }
+
+    public void setItemStack(ItemStack itemStack) {
+        this.itemStack = itemStack;
+        this.itemLoader = null;
+        this.itemModified = true;
+    }
+
+    /**
+     * @return True if the item has been read or set
+     */
+    public boolean isItemLoaded() {
+        return itemLoader == null;
+    }
 }
@@ -0,0 +1,126 @@
+package me.lojosho.hibiscuscommons.packets.entity;
+
+import it.unimi.dsi.fastutil.ints.IntArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import me.lojosho.hibiscuscommons.nms.NMSHandlers;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands out entity ids for packet entities. Ids are taken from the server's counter in blocks, and each thread takes
+ * ids from its own part of a block, so most ids don't touch any shared state.
+ * <p>
+ * Ids given back with {@link #release(int)} are handed out again once {@link #QUARANTINE_NANOS} have passed, so every
+ * client has removed the old entity before a new one uses the id.
+ */
+public class EntityIdAllocator {
+
+    public static final int BLOCK_SIZE = 256;
+    public static final long QUARANTINE_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private static final ThreadLocal<Slab> SLABS = ThreadLocal.withInitial(Slab::new);
+
+    private static final Object LOCK = new Object();
+    // Released ids and when they were released, oldest first
+    private static final IntArrayFIFOQueue QUARANTINED = new IntArrayFIFOQueue();
+    private static final LongArrayFIFOQueue RELEASED_AT = new LongArrayFIFOQueue();
+    private static final IntArrayFIFOQueue FREE = new IntArrayFIFOQueue();
+    // Checked before taking the lock, so allocating doesn't wait on it while every released id is still in quarantine
+    private static volatile int freeCount = 0;
+    private static volatile long oldestRelease = Long.MAX_VALUE;
+
+    /**
+     * Returns an id no other entity, packet only or real, is using.
+     */
+    public static int allocate() {
+        if (freeCount > 0 || (oldestRelease != Long.MAX_VALUE && System.nanoTime() - oldestRelease >= QUARANTINE_NANOS)) {
+            int id = pollRecycled();
+            if (id != -1) return id;
+        }
+        Slab slab = SLABS.get();
+        if (slab.next == slab.end && !slab.reserve(BLOCK_SIZE)) {
+            return NMSHandlers.getHandler().getUtilHandler().getNextEntityId();
+        }
+        return slab.next++;
+    }
+
+    /**
+     * Returns ids for an entity made of several parts, such as a model. The ids are consecutive when the server's
+     * counter can be reached.
+     */
+    @NotNull
+    public static int[] allocate(int count) {
+        int[] ids = new int[count];
+        if (count == 0) return ids;
+        Slab slab = SLABS.get();
+        if (slab.end - slab.next < count) {
+            // Blocks too small for the whole model are reserved on their own, the slab keeps its remaining ids
+            if (count > BLOCK_SIZE / 4) {
+                int first = NMSHandlers.getHandler().getUtilHandler().reserveEntityIds(count);
+                if (first == -1) return allocateEach(ids);
+                for (int i = 0; i < count; i++) ids[i] = first + i;
+                return ids;
+            }
+            if (!slab.reserve(BLOCK_SIZE)) return allocateEach(ids);
+        }
+        for (int i = 0; i < count; i++) ids[i] = slab.next++;
+        return ids;
+    }
+
+    /**
+     * Gives back an id that is no longer used, after the entity was destroyed for every viewer.
+     * Only ids from this allocator can be released, and each only once.
+     */
+    public static void release(int entityId) {
+        synchronized (LOCK) {
+            quarantine(entityId, System.nanoTime());
+        }
+    }
+
+    public static void release(@NotNull int... entityIds) {
+        long now = System.nanoTime();
+        synchronized (LOCK) {
+            for (int entityId : entityIds) quarantine(entityId, now);
+        }
+    }
+
+    private static void quarantine(int entityId, long now) {
+        if (QUARANTINED.isEmpty()) oldestRelease = now;
+        QUARANTINED.enqueue(entityId);
+        RELEASED_AT.enqueue(now);
+    }
+
+    private static int pollRecycled() {
+        synchronized (LOCK) {
+            long now = System.nanoTime();
+            while (!QUARANTINED.isEmpty() && now - RELEASED_AT.firstLong() >= QUARANTINE_NANOS) {
+                RELEASED_AT.dequeueLong();
+                FREE.enqueue(QUARANTINED.dequeueInt());
+            }
+            oldestRelease = QUARANTINED.isEmpty() ? Long.MAX_VALUE : RELEASED_AT.firstLong();
+            int id = FREE.isEmpty() ? -1 : FREE.dequeueInt();
+            freeCount = FREE.size();
+            return id;
+        }
+    }
+
+    private static int[] allocateEach(int[] ids) {
+        for (int i = 0; i < ids.length; i++) ids[i] = NMSHandlers.getHandler().getUtilHandler().getNextEntityId();
+        return ids;
+    }
+
+    private static class Slab {
+
+        private int next;
+        private int end;
+
+        private boolean reserve(int size) {
+            int first = NMSHandlers.getHandler().getUtilHandler().reserveEntityIds(size);
+            if (first == -1) return false;
+            next = first;
+            end = first + size;
+            return true;
+        }
+    }
+}
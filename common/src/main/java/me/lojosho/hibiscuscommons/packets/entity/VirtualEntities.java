@@ -0,0 +1,70 @@
+package me.lojosho.hibiscuscommons.packets.entity;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMaps;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import me.lojosho.hibiscuscommons.HibiscusPlugin;
+import org.bukkit.Location;
+import org.bukkit.entity.EntityType;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps every {@link VirtualEntity} and updates them once per tick, right before the packet queue is sent.
+ */
+public class VirtualEntities {
+
+    private static final Int2ObjectMap<VirtualEntity> ENTITIES = Int2ObjectMaps.synchronize(new Int2ObjectOpenHashMap<>());
+
+    /**
+     * Creates a virtual entity. It is shown to players in range on the next tick.
+     * @param plugin The plugin the entity belongs to, it is removed when the plugin is disabled
+     */
+    @NotNull
+    public static VirtualEntity spawn(@NotNull HibiscusPlugin plugin, @NotNull EntityType type, @NotNull Location location) {
+        VirtualEntity entity = new VirtualEntity(plugin, type, location);
+        ENTITIES.put(entity.getEntityId(), entity);
+        return entity;
+    }
+
+    @Nullable
+    public static VirtualEntity get(int entityId) {
+        return ENTITIES.get(entityId);
+    }
+
+    @NotNull
+    public static List<VirtualEntity> getEntities(@NotNull HibiscusPlugin plugin) {
+        List<VirtualEntity> entities = new ArrayList<>();
+        for (VirtualEntity entity : snapshot()) {
+            if (entity.getPlugin() == plugin) entities.add(entity);
+        }
+        return entities;
+    }
+
+    /**
+     * Removes every virtual entity of a plugin.
+     */
+    public static void removeAll(@NotNull HibiscusPlugin plugin) {
+        for (VirtualEntity entity : getEntities(plugin)) entity.remove();
+    }
+
+    @ApiStatus.Internal
+    public static void tick() {
+        if (ENTITIES.isEmpty()) return;
+        for (VirtualEntity entity : snapshot()) entity.tick();
+    }
+
+    static void unregister(@NotNull VirtualEntity entity) {
+        ENTITIES.remove(entity.getEntityId(), entity);
+    }
+
+    private static List<VirtualEntity> snapshot() {
+        synchronized (ENTITIES) {
+            return new ArrayList<>(ENTITIES.values());
+        }
+    }
+}
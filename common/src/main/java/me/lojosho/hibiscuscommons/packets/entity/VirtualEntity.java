@@ -0,0 +1,285 @@
+package me.lojosho.hibiscuscommons.packets.entity;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import lombok.Getter;
+import me.lojosho.hibiscuscommons.HibiscusPlugin;
+import me.lojosho.hibiscuscommons.nms.NMSHandlers;
+import me.lojosho.hibiscuscommons.nms.NMSPacketBuilder;
+import me.lojosho.hibiscuscommons.packets.EntityDestroyAggregator;
+import me.lojosho.hibiscuscommons.packets.EntityPositionTracker;
+import me.lojosho.hibiscuscommons.packets.metadata.EntityMetadata;
+import me.lojosho.hibiscuscommons.packets.wrapper.PacketWrapper;
+import me.lojosho.hibiscuscommons.util.PlayerIndex;
+import me.lojosho.hibiscuscommons.util.ServerUtils;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * An entity that only exists in packets. It is shown to every player in the same world within its view distance, and
+ * hidden again when they leave it.
+ * <p>
+ * Changes only mark the entity as dirty. Once per tick, the changed state is queued for every viewer, where it is
+ * sent with the rest of the tick's packets in one bundle, and new viewers are sent the full state. Changes can be made
+ * from any thread.
+ * <p>
+ * Created with {@link VirtualEntities#spawn(HibiscusPlugin, EntityType, Location)}, and removed with the plugin that
+ * created it if it isn't {@link #remove() removed} before.
+ */
+public class VirtualEntity {
+
+    public static final double DEFAULT_VIEW_DISTANCE = 48;
+
+    private static final int DIRTY_POSITION = 1;
+    private static final int DIRTY_METADATA = 1 << 1;
+    private static final int DIRTY_EQUIPMENT = 1 << 2;
+    private static final int DIRTY_PASSENGERS = 1 << 3;
+
+    @Getter
+    private final HibiscusPlugin plugin;
+    @Getter
+    private final int entityId;
+    @Getter
+    private final UUID uuid;
+    @Getter
+    private final EntityType type;
+    private final EntityPositionTracker tracker;
+
+    private Location location;
+    private boolean onGround;
+    private float sentHeadYaw;
+    private double viewDistance = DEFAULT_VIEW_DISTANCE;
+    private Predicate<Player> viewerFilter = player -> true;
+    private final EntityMetadata metadata = new EntityMetadata();
+    private final EntityMetadata changedMetadata = new EntityMetadata();
+    private final Map<EquipmentSlot, ItemStack> equipment = new EnumMap<>(EquipmentSlot.class);
+    private final Map<EquipmentSlot, ItemStack> changedEquipment = new EnumMap<>(EquipmentSlot.class);
+    private final IntArrayList passengers = new IntArrayList();
+    private int dirty;
+    @Getter
+    private volatile boolean removed;
+
+    private final Map<UUID, Player> viewers = new HashMap<>();
+
+    VirtualEntity(@NotNull HibiscusPlugin plugin, @NotNull EntityType type, @NotNull Location location) {
+        if (location.getWorld() == null) throw new IllegalArgumentException("The location of a virtual entity needs a world");
+        this.plugin = plugin;
+        this.entityId = ServerUtils.getNextEntityId();
+        this.uuid = UUID.randomUUID();
+        this.type = type;
+        this.location = location.clone();
+        this.sentHeadYaw = location.getYaw();
+        this.tracker = new EntityPositionTracker(entityId);
+    }
+
+    @NotNull
+    public synchronized Location getLocation() {
+        return location.clone();
+    }
+
+    /**
+     * Moves the entity. Moving it to another world hides it from its viewers there, and shows it to players in the new world.
+     */
+    public synchronized void setLocation(@NotNull Location location) {
+        if (location.getWorld() == null) throw new IllegalArgumentException("The location of a virtual entity needs a world");
+        this.location = location.clone();
+        dirty |= DIRTY_POSITION;
+    }
+
+    public synchronized void setRotation(float yaw, float pitch) {
+        location.setYaw(yaw);
+        location.setPitch(pitch);
+        dirty |= DIRTY_POSITION;
+    }
+
+    public synchronized void setOnGround(boolean onGround) {
+        this.onGround = onGround;
+    }
+
+    public synchronized double getViewDistance() {
+        return viewDistance;
+    }
+
+    public synchronized void setViewDistance(double viewDistance) {
+        this.viewDistance = viewDistance;
+    }
+
+    /**
+     * Limits who can see the entity, on top of the view distance. Checked every tick on the main thread.
+     */
+    public synchronized void setViewerFilter(@NotNull Predicate<Player> viewerFilter) {
+        this.viewerFilter = viewerFilter;
+    }
+
+    /**
+     * Changes the metadata of the entity. Only the values set in the consumer are sent to current viewers.
+     */
+    public synchronized void editMetadata(@NotNull Consumer<EntityMetadata> editor) {
+        editor.accept(changedMetadata);
+        if (!changedMetadata.isEmpty()) dirty |= DIRTY_METADATA;
+    }
+
+    /**
+     * Returns a copy of the metadata the entity has, including changes that were not sent yet.
+     */
+    @NotNull
+    public synchronized EntityMetadata getMetadata() {
+        return metadata.copy().putAll(changedMetadata);
+    }
+
+    public synchronized void setEquipment(@NotNull EquipmentSlot slot, @Nullable ItemStack item) {
+        ItemStack copy = item == null ? new ItemStack(Material.AIR) : item.clone();
+        equipment.put(slot, copy);
+        changedEquipment.put(slot, copy);
+        dirty |= DIRTY_EQUIPMENT;
+    }
+
+    @Nullable
+    public synchronized ItemStack getEquipment(@NotNull EquipmentSlot slot) {
+        ItemStack item = equipment.get(slot);
+        return item == null ? null : item.clone();
+    }
+
+    /**
+     * Replaces the passengers of the entity. Passengers are other entities the viewers can see, by their entity id.
+     */
+    public synchronized void setPassengers(int... entityIds) {
+        passengers.clear();
+        passengers.addElements(0, entityIds);
+        dirty |= DIRTY_PASSENGERS;
+    }
+
+    public synchronized void addPassenger(int entityId) {
+        if (passengers.contains(entityId)) return;
+        passengers.add(entityId);
+        dirty |= DIRTY_PASSENGERS;
+    }
+
+    public synchronized void removePassenger(int entityId) {
+        if (passengers.rem(entityId)) dirty |= DIRTY_PASSENGERS;
+    }
+
+    @NotNull
+    public synchronized IntList getPassengers() {
+        return new IntArrayList(passengers);
+    }
+
+    @NotNull
+    public synchronized List<Player> getViewers() {
+        return new ArrayList<>(viewers.values());
+    }
+
+    public synchronized boolean isViewing(@NotNull Player player) {
+        return viewers.containsKey(player.getUniqueId());
+    }
+
+    /**
+     * Hides the entity from every viewer and stops updating it.
+     */
+    public void remove() {
+        synchronized (this) {
+            if (removed) return;
+            removed = true;
+            if (!viewers.isEmpty()) EntityDestroyAggregator.destroy(viewers.values(), entityId);
+            viewers.clear();
+            tracker.clear();
+        }
+        VirtualEntities.unregister(this);
+        EntityIdAllocator.release(entityId);
+    }
+
+    /**
+     * Sends the changes since the last tick to the viewers, then hides and shows the entity to players that left or
+     * came into range.
+     */
+    synchronized void tick() {
+        if (removed) return;
+        NMSPacketBuilder builder = NMSHandlers.getHandler().getPacketBuilder();
+        if (dirty != 0 && !viewers.isEmpty()) sendChanges(builder);
+        metadata.putAll(changedMetadata);
+        changedMetadata.clear();
+        changedEquipment.clear();
+        dirty = 0;
+
+        World world = location.getWorld();
+        List<Player> entered = new ArrayList<>();
+        Iterator<Player> iterator = viewers.values().iterator();
+        while (iterator.hasNext()) {
+            Player viewer = iterator.next();
+            if (viewer.isOnline() && canSee(viewer, world)) continue;
+            iterator.remove();
+            tracker.removeViewer(viewer);
+            if (viewer.isOnline()) EntityDestroyAggregator.destroy(viewer, entityId);
+        }
+        PlayerIndex.forEachNearby(world, location.getX(), location.getY(), location.getZ(), viewDistance, player -> {
+            if (!viewers.containsKey(player.getUniqueId()) && viewerFilter.test(player)) entered.add(player);
+        });
+        if (entered.isEmpty()) return;
+
+        List<PacketWrapper> spawn = spawnPackets(builder);
+        for (Player player : entered) {
+            viewers.put(player.getUniqueId(), player);
+            tracker.setPosition(player, location);
+            for (PacketWrapper packet : spawn) packet.queuePacket(player);
+        }
+    }
+
+    private void sendChanges(NMSPacketBuilder builder) {
+        Collection<Player> current = viewers.values();
+        List<Player> recipients = new ArrayList<>(current);
+        if ((dirty & DIRTY_POSITION) != 0) {
+            for (Player viewer : current) {
+                PacketWrapper move = tracker.update(viewer, location, onGround);
+                if (move != null) move.queuePacket(viewer);
+            }
+            if (type.isAlive() && location.getYaw() != sentHeadYaw) {
+                builder.buildEntityRotateHeadPacket(entityId, location.getYaw()).queuePacket(recipients);
+            }
+            sentHeadYaw = location.getYaw();
+        }
+        if ((dirty & DIRTY_METADATA) != 0) {
+            builder.buildEntityMetadataPacket(entityId, changedMetadata).queuePacket(recipients);
+        }
+        if ((dirty & DIRTY_EQUIPMENT) != 0) {
+            builder.buildEntityEquipmentSlotUpdatePacket(entityId, new EnumMap<>(changedEquipment)).queuePacket(recipients);
+        }
+        if ((dirty & DIRTY_PASSENGERS) != 0) {
+            builder.buildEntityMountPacket(entityId, passengers.toIntArray()).queuePacket(recipients);
+        }
+    }
+
+    // Queued one by one rather than as a bundle, the queue already sends each viewer's packets of the tick as one bundle
+    private List<PacketWrapper> spawnPackets(NMSPacketBuilder builder) {
+        List<PacketWrapper> packets = new ArrayList<>(5);
+        packets.add(builder.buildEntitySpawnPacket(entityId, uuid, type, location));
+        if (type.isAlive()) packets.add(builder.buildEntityRotateHeadPacket(entityId, location.getYaw()));
+        if (!metadata.isEmpty()) packets.add(builder.buildEntityMetadataPacket(entityId, metadata));
+        if (!equipment.isEmpty()) packets.add(builder.buildEntityEquipmentSlotUpdatePacket(entityId, new EnumMap<>(equipment)));
+        if (!passengers.isEmpty()) packets.add(builder.buildEntityMountPacket(entityId, passengers.toIntArray()));
+        return packets;
+    }
+
+    private boolean canSee(Player player, World world) {
+        if (player.getWorld() != world) return false;
+        if (player.getLocation().distanceSquared(location) > viewDistance * viewDistance) return false;
+        return viewerFilter.test(player);
+    }
+}
@@ -0,0 +1,257 @@
+package me.lojosho.hibiscuscommons.packets.metadata;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.Display;
+import org.bukkit.entity.ItemDisplay;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.util.Transformation;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+import java.util.Arrays;
+
+/**
+ * A set of entity data values to send in a metadata packet. Primitive values are stored unboxed, and setting an index
+ * that is already set replaces its value.
+ * <p>
+ * The values are copied when a packet is built from it, so one instance can be {@link #clear() cleared} and reused for
+ * the next packet. Instances are not thread safe.
+ */
+public final class EntityMetadata {
+
+    private int[] indexes;
+    private MetadataType[] types;
+    private long[] values;
+    private Object[] objects;
+    private int size;
+
+    public EntityMetadata() {
+        this(8);
+    }
+
+    public EntityMetadata(int capacity) {
+        capacity = Math.max(1, capacity);
+        this.indexes = new int[capacity];
+        this.types = new MetadataType[capacity];
+        this.values = new long[capacity];
+        this.objects = new Object[capacity];
+    }
+
+    public EntityMetadata setByte(int index, byte value) {
+        return put(index, MetadataType.BYTE, value, null);
+    }
+
+    public EntityMetadata setInt(int index, int value) {
+        return put(index, MetadataType.INT, value, null);
+    }
+
+    public EntityMetadata setFloat(int index, float value) {
+        return put(index, MetadataType.FLOAT, Float.floatToRawIntBits(value), null);
+    }
+
+    public EntityMetadata setBoolean(int index, boolean value) {
+        return put(index, MetadataType.BOOLEAN, value ? 1 : 0, null);
+    }
+
+    public EntityMetadata setComponent(int index, @NotNull Component value) {
+        return put(index, MetadataType.COMPONENT, 0, value);
+    }
+
+    public EntityMetadata setOptionalComponent(int index, @Nullable Component value) {
+        return put(index, MetadataType.OPTIONAL_COMPONENT, 0, value);
+    }
+
+    public EntityMetadata setItemStack(int index, @Nullable ItemStack value) {
+        return put(index, MetadataType.ITEM_STACK, 0, value == null ? null : value.clone());
+    }
+
+    public EntityMetadata setVector(int index, @NotNull Vector3f value) {
+        return put(index, MetadataType.VECTOR, 0, new Vector3f(value));
+    }
+
+    public EntityMetadata setQuaternion(int index, @NotNull Quaternionf value) {
+        return put(index, MetadataType.QUATERNION, 0, new Quaternionf(value));
+    }
+
+    public EntityMetadata setBlockState(int index, @NotNull BlockData value) {
+        return put(index, MetadataType.BLOCK_STATE, 0, value.clone());
+    }
+
+    public EntityMetadata setByte(@NotNull MetadataField field, byte value) {
+        return setByte(checkedIndex(field, MetadataType.BYTE), value);
+    }
+
+    public EntityMetadata setInt(@NotNull MetadataField field, int value) {
+        return setInt(checkedIndex(field, MetadataType.INT), value);
+    }
+
+    public EntityMetadata setFloat(@NotNull MetadataField field, float value) {
+        return setFloat(checkedIndex(field, MetadataType.FLOAT), value);
+    }
+
+    public EntityMetadata setBoolean(@NotNull MetadataField field, boolean value) {
+        return setBoolean(checkedIndex(field, MetadataType.BOOLEAN), value);
+    }
+
+    public EntityMetadata setComponent(@NotNull MetadataField field, @NotNull Component value) {
+        return setComponent(checkedIndex(field, MetadataType.COMPONENT), value);
+    }
+
+    public EntityMetadata setOptionalComponent(@NotNull MetadataField field, @Nullable Component value) {
+        return setOptionalComponent(checkedIndex(field, MetadataType.OPTIONAL_COMPONENT), value);
+    }
+
+    public EntityMetadata setItemStack(@NotNull MetadataField field, @Nullable ItemStack value) {
+        return setItemStack(checkedIndex(field, MetadataType.ITEM_STACK), value);
+    }
+
+    public EntityMetadata setVector(@NotNull MetadataField field, @NotNull Vector3f value) {
+        return setVector(checkedIndex(field, MetadataType.VECTOR), value);
+    }
+
+    public EntityMetadata setQuaternion(@NotNull MetadataField field, @NotNull Quaternionf value) {
+        return setQuaternion(checkedIndex(field, MetadataType.QUATERNION), value);
+    }
+
+    public EntityMetadata setBlockState(@NotNull MetadataField field, @NotNull BlockData value) {
+        return setBlockState(checkedIndex(field, MetadataType.BLOCK_STATE), value);
+    }
+
+    /**
+     * Sets the translation, scale and rotations of a display entity.
+     */
+    public EntityMetadata setTransformation(@NotNull Transformation transformation) {
+        setVector(MetadataField.DISPLAY_TRANSLATION, transformation.getTranslation());
+        setVector(MetadataField.DISPLAY_SCALE, transformation.getScale());
+        setQuaternion(MetadataField.DISPLAY_LEFT_ROTATION, transformation.getLeftRotation());
+        return setQuaternion(MetadataField.DISPLAY_RIGHT_ROTATION, transformation.getRightRotation());
+    }
+
+    /**
+     * Sets how long a display entity takes to move to a new transformation, starting after the given delay.
+     */
+    public EntityMetadata setInterpolation(int delay, int duration) {
+        setInt(MetadataField.DISPLAY_INTERPOLATION_DELAY, delay);
+        return setInt(MetadataField.DISPLAY_TRANSFORMATION_INTERPOLATION_DURATION, duration);
+    }
+
+    public EntityMetadata setBillboard(@NotNull Display.Billboard billboard) {
+        return setByte(MetadataField.DISPLAY_BILLBOARD, (byte) billboard.ordinal());
+    }
+
+    public EntityMetadata setItemDisplayTransform(@NotNull ItemDisplay.ItemDisplayTransform transform) {
+        return setByte(MetadataField.ITEM_DISPLAY_TRANSFORM, (byte) transform.ordinal());
+    }
+
+    public EntityMetadata setCustomName(@Nullable Component name, boolean visible) {
+        setOptionalComponent(MetadataField.ENTITY_CUSTOM_NAME, name);
+        return setBoolean(MetadataField.ENTITY_CUSTOM_NAME_VISIBLE, visible);
+    }
+
+    /**
+     * Sets every value of the other metadata on this one, replacing values at the same index.
+     */
+    public EntityMetadata putAll(@NotNull EntityMetadata other) {
+        for (int position = 0; position < other.size; position++) {
+            put(other.indexes[position], other.types[position], other.values[position], other.objects[position]);
+        }
+        return this;
+    }
+
+    /**
+     * Removes every value, keeping the allocated space for the next use.
+     */
+    public void clear() {
+        Arrays.fill(objects, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Returns a copy of this metadata, with later changes to either one not affecting the other.
+     */
+    @NotNull
+    public EntityMetadata copy() {
+        EntityMetadata copy = new EntityMetadata(size);
+        System.arraycopy(indexes, 0, copy.indexes, 0, size);
+        System.arraycopy(types, 0, copy.types, 0, size);
+        System.arraycopy(values, 0, copy.values, 0, size);
+        System.arraycopy(objects, 0, copy.objects, 0, size);
+        copy.size = size;
+        return copy;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the entity data index of the value at the given position.
+     */
+    public int getIndex(int position) {
+        return indexes[position];
+    }
+
+    @NotNull
+    public MetadataType getType(int position) {
+        return types[position];
+    }
+
+    public byte getByte(int position) {
+        return (byte) values[position];
+    }
+
+    public int getInt(int position) {
+        return (int) values[position];
+    }
+
+    public float getFloat(int position) {
+        return Float.intBitsToFloat((int) values[position]);
+    }
+
+    public boolean getBoolean(int position) {
+        return values[position] != 0;
+    }
+
+    /**
+     * Returns the value at the given position for types that are not primitives.
+     */
+    @Nullable
+    public Object getObject(int position) {
+        return objects[position];
+    }
+
+    private EntityMetadata put(int index, MetadataType type, long value, Object object) {
+        if (index < 0 || index > 254) throw new IllegalArgumentException("Entity data index out of range: " + index);
+        int position = 0;
+        while (position < size && indexes[position] != index) position++;
+        if (position == size) {
+            if (size == indexes.length) grow();
+            size++;
+        }
+        indexes[position] = index;
+        types[position] = type;
+        values[position] = value;
+        objects[position] = object;
+        return this;
+    }
+
+    private void grow() {
+        int capacity = indexes.length * 2;
+        indexes = Arrays.copyOf(indexes, capacity);
+        types = Arrays.copyOf(types, capacity);
+        values = Arrays.copyOf(values, capacity);
+        objects = Arrays.copyOf(objects, capacity);
+    }
+
+    private static int checkedIndex(MetadataField field, MetadataType type) {
+        if (field.getType() != type) throw new IllegalArgumentException(field + " holds a " + field.getType() + ", not a " + type);
+        return field.getIndex();
+    }
+}
@@ -0,0 +1,58 @@
+package me.lojosho.hibiscuscommons.packets.metadata;
+
+import lombok.Getter;
+import me.lojosho.hibiscuscommons.nms.NMSHandlers;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Commonly used entity data fields. The index of a field is taken from the server version in use, so code using these
+ * fields does not need to know the indices of every version.
+ */
+public enum MetadataField {
+    ENTITY_FLAGS(MetadataType.BYTE),
+    ENTITY_CUSTOM_NAME(MetadataType.OPTIONAL_COMPONENT),
+    ENTITY_CUSTOM_NAME_VISIBLE(MetadataType.BOOLEAN),
+    ENTITY_SILENT(MetadataType.BOOLEAN),
+    ENTITY_NO_GRAVITY(MetadataType.BOOLEAN),
+    ARMOR_STAND_FLAGS(MetadataType.BYTE),
+    DISPLAY_INTERPOLATION_DELAY(MetadataType.INT),
+    DISPLAY_TRANSFORMATION_INTERPOLATION_DURATION(MetadataType.INT),
+    DISPLAY_POSITION_INTERPOLATION_DURATION(MetadataType.INT),
+    DISPLAY_TRANSLATION(MetadataType.VECTOR),
+    DISPLAY_SCALE(MetadataType.VECTOR),
+    DISPLAY_LEFT_ROTATION(MetadataType.QUATERNION),
+    DISPLAY_RIGHT_ROTATION(MetadataType.QUATERNION),
+    DISPLAY_BILLBOARD(MetadataType.BYTE),
+    DISPLAY_BRIGHTNESS(MetadataType.INT),
+    DISPLAY_VIEW_RANGE(MetadataType.FLOAT),
+    DISPLAY_SHADOW_RADIUS(MetadataType.FLOAT),
+    DISPLAY_SHADOW_STRENGTH(MetadataType.FLOAT),
+    DISPLAY_WIDTH(MetadataType.FLOAT),
+    DISPLAY_HEIGHT(MetadataType.FLOAT),
+    DISPLAY_GLOW_COLOR(MetadataType.INT),
+    ITEM_DISPLAY_ITEM(MetadataType.ITEM_STACK),
+    ITEM_DISPLAY_TRANSFORM(MetadataType.BYTE),
+    BLOCK_DISPLAY_BLOCK(MetadataType.BLOCK_STATE),
+    TEXT_DISPLAY_TEXT(MetadataType.COMPONENT),
+    TEXT_DISPLAY_LINE_WIDTH(MetadataType.INT),
+    TEXT_DISPLAY_BACKGROUND(MetadataType.INT),
+    TEXT_DISPLAY_OPACITY(MetadataType.BYTE),
+    TEXT_DISPLAY_FLAGS(MetadataType.BYTE),
+    ;
+
+    @Getter
+    private final MetadataType type;
+    private int index = -1;
+
+    MetadataField(@NotNull MetadataType type) {
+        this.type = type;
+    }
+
+    /**
+     * Returns the index of this field on the server version in use.
+     */
+    public int getIndex() {
+        if (index == -1) index = NMSHandlers.getHandler().getPacketBuilder().getMetadataIndex(this);
+        return index;
+    }
+}
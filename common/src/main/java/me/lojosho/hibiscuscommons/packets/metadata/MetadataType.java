@@ -0,0 +1,35 @@
+package me.lojosho.hibiscuscommons.packets.metadata;
+
+/**
+ * The kinds of values an {@link EntityMetadata} can hold, each matching one of the game's entity data serializers.
+ */
+public enum MetadataType {
+    BYTE,
+    INT,
+    FLOAT,
+    BOOLEAN,
+    /**
+     * An adventure component.
+     */
+    COMPONENT,
+    /**
+     * An adventure component, or null to clear it.
+     */
+    OPTIONAL_COMPONENT,
+    /**
+     * A Bukkit item stack, null for air.
+     */
+    ITEM_STACK,
+    /**
+     * A JOML vector.
+     */
+    VECTOR,
+    /**
+     * A JOML quaternion.
+     */
+    QUATERNION,
+    /**
+     * A Bukkit block data.
+     */
+    BLOCK_STATE
+}
@@ -0,0 +1,91 @@
+package me.lojosho.hibiscuscommons.packets.metrics;
+
+import lombok.Getter;
+import lombok.Setter;
+import me.lojosho.hibiscuscommons.packets.PacketAction;
+import me.lojosho.hibiscuscommons.packets.PacketHandlerType;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects what intercepting packets costs: counters and handler time per packet type, and handler time per
+ * plugin per {@link me.lojosho.hibiscuscommons.packets.PacketInterface} method.
+ */
+public class PacketMetrics {
+
+    private static final PacketHandlerType[] TYPES = PacketHandlerType.values();
+    private static final PacketTypeMetrics[] TYPE_METRICS = new PacketTypeMetrics[TYPES.length];
+    private static final Map<String, LatencyHistogram[]> PLUGIN_TIMINGS = new ConcurrentHashMap<>();
+
+    /**
+     * Whether handler time is recorded. Packet counters are always recorded.
+     */
+    @Getter @Setter
+    private static volatile boolean timingEnabled = true;
+
+    static {
+        for (PacketHandlerType type : TYPES) TYPE_METRICS[type.ordinal()] = new PacketTypeMetrics(type);
+    }
+
+    @NotNull
+    public static PacketTypeMetrics getMetrics(@NotNull PacketHandlerType type) {
+        return TYPE_METRICS[type.ordinal()];
+    }
+
+    /**
+     * Returns the handler time of a plugin for a packet type, in nanoseconds.
+     * @param pluginName The name of the plugin
+     * @param type The packet type
+     * @return The histogram, created if the plugin has not handled this type yet
+     */
+    @NotNull
+    public static LatencyHistogram getTimings(@NotNull String pluginName, @NotNull PacketHandlerType type) {
+        return PLUGIN_TIMINGS.computeIfAbsent(pluginName, ignored -> createHistograms())[type.ordinal()];
+    }
+
+    /**
+     * @return The handler time of every plugin that has been registered, keyed by plugin name and packet type
+     */
+    @NotNull
+    public static Map<String, Map<PacketHandlerType, LatencyHistogram>> getPluginTimings() {
+        Map<String, Map<PacketHandlerType, LatencyHistogram>> timings = new ConcurrentHashMap<>();
+        for (Map.Entry<String, LatencyHistogram[]> entry : PLUGIN_TIMINGS.entrySet()) {
+            EnumMap<PacketHandlerType, LatencyHistogram> byType = new EnumMap<>(PacketHandlerType.class);
+            for (PacketHandlerType type : TYPES) byType.put(type, entry.getValue()[type.ordinal()]);
+            timings.put(entry.getKey(), byType);
+        }
+        return Collections.unmodifiableMap(timings);
+    }
+
+    public static void reset() {
+        for (PacketTypeMetrics metrics : TYPE_METRICS) metrics.reset();
+        for (LatencyHistogram[] histograms : PLUGIN_TIMINGS.values()) {
+            for (LatencyHistogram histogram : histograms) histogram.reset();
+        }
+    }
+
+    @ApiStatus.Internal
+    public static void recordSeen(@NotNull PacketHandlerType type) {
+        TYPE_METRICS[type.ordinal()].recordSeen();
+    }
+
+    @ApiStatus.Internal
+    public static void recordDispatch(@NotNull PacketHandlerType type, @NotNull PacketAction action, long nanos) {
+        PacketTypeMetrics metrics = TYPE_METRICS[type.ordinal()];
+        metrics.recordDispatched();
+        if (action == PacketAction.CHANGED) metrics.recordChanged();
+        else if (action == PacketAction.CANCELLED) metrics.recordCancelled();
+        if (nanos >= 0) metrics.getHandlerTime().record(nanos);
+    }
+
+    private static LatencyHistogram[] createHistograms() {
+        LatencyHistogram[] histograms = new LatencyHistogram[TYPES.length];
+        for (int i = 0; i < histograms.length; i++) histograms[i] = new LatencyHistogram();
+        return histograms;
+    }
+}
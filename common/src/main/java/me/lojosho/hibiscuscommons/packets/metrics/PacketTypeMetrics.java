@@ -0,0 +1,75 @@
+package me.lojosho.hibiscuscommons.packets.metrics;
+
+import lombok.Getter;
+import me.lojosho.hibiscuscommons.packets.PacketHandlerType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for a single intercepted packet type.
+ */
+public class PacketTypeMetrics {
+
+    @Getter
+    private final PacketHandlerType type;
+    private final LongAdder seen = new LongAdder();
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder changed = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    /**
+     * Time spent in all packet interfaces for a single packet, in nanoseconds.
+     */
+    @Getter
+    private final LatencyHistogram handlerTime = new LatencyHistogram();
+
+    public PacketTypeMetrics(@NotNull PacketHandlerType type) {
+        this.type = type;
+    }
+
+    /**
+     * @return The amount of packets of this type that went through the packet channel
+     */
+    public long getSeen() {
+        return seen.sum();
+    }
+
+    /**
+     * @return The amount of packets of this type that were handed to at least one packet interface
+     */
+    public long getDispatched() {
+        return dispatched.sum();
+    }
+
+    public long getChanged() {
+        return changed.sum();
+    }
+
+    public long getCancelled() {
+        return cancelled.sum();
+    }
+
+    void recordSeen() {
+        seen.increment();
+    }
+
+    void recordDispatched() {
+        dispatched.increment();
+    }
+
+    void recordChanged() {
+        changed.increment();
+    }
+
+    void recordCancelled() {
+        cancelled.increment();
+    }
+
+    void reset() {
+        seen.reset();
+        dispatched.reset();
+        changed.reset();
+        cancelled.reset();
+        handlerTime.reset();
+    }
+}
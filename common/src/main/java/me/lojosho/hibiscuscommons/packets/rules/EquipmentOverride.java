@@ -0,0 +1,43 @@
+package me.lojosho.hibiscuscommons.packets.rules;
+
+import lombok.Getter;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Replaces the equipment an entity shows to its viewers. Slots are also added when the packet does not contain them.
+ * The override is applied after packet interfaces rewrote the packet, so it replaces their items too.
+ */
+public final class EquipmentOverride {
+
+    private final Map<EquipmentSlot, RuleItem> items;
+    @Getter
+    private final ViewerFilter viewers;
+
+    public EquipmentOverride(@NotNull Map<EquipmentSlot, ItemStack> items, @NotNull ViewerFilter viewers) {
+        EnumMap<EquipmentSlot, RuleItem> converted = new EnumMap<>(EquipmentSlot.class);
+        items.forEach((slot, item) -> converted.put(slot, new RuleItem(item)));
+        this.items = Collections.unmodifiableMap(converted);
+        this.viewers = viewers;
+    }
+
+    public EquipmentOverride(@NotNull EquipmentSlot slot, @NotNull ItemStack item, @NotNull ViewerFilter viewers) {
+        this(Map.of(slot, item), viewers);
+    }
+
+    @NotNull
+    public Map<EquipmentSlot, RuleItem> getItems() {
+        return items;
+    }
+
+    @Nullable
+    public RuleItem getItem(@NotNull EquipmentSlot slot) {
+        return items.get(slot);
+    }
+}
@@ -0,0 +1,130 @@
+package me.lojosho.hibiscuscommons.packets.rules;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMaps;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Consumer;
+
+/**
+ * Static packet rewrites, applied by the packet channel directly to the native packets. Unlike a
+ * {@link me.lojosho.hibiscuscommons.packets.PacketInterface}, no plugin code is called and no items are converted per packet.
+ * <p>
+ * Rules are read on the network threads without locking. Every change copies the table it changes, so rules are meant for
+ * data that changes far less often than packets are sent. Rules are not tied to a plugin and have to be removed by
+ * whoever added them.
+ */
+public class PacketRules {
+
+    private static final Object LOCK = new Object();
+
+    private static volatile Int2ObjectMap<EquipmentOverride> equipmentOverrides = Int2ObjectMaps.emptyMap();
+    private static volatile Int2ObjectMap<PassengerInjection> passengerInjections = Int2ObjectMaps.emptyMap();
+    private static volatile Int2ObjectMap<Int2ObjectMap<RuleItem>> slotOverlays = Int2ObjectMaps.emptyMap();
+
+    /**
+     * Replaces the equipment an entity shows to the viewers of the override.
+     * @param entityId The entity whose equipment is replaced
+     * @param override The equipment to show instead
+     */
+    public static void setEquipmentOverride(int entityId, @NotNull EquipmentOverride override) {
+        synchronized (LOCK) {
+            equipmentOverrides = with(equipmentOverrides, map -> map.put(entityId, override));
+        }
+    }
+
+    public static void removeEquipmentOverride(int entityId) {
+        synchronized (LOCK) {
+            if (!equipmentOverrides.containsKey(entityId)) return;
+            equipmentOverrides = with(equipmentOverrides, map -> map.remove(entityId));
+        }
+    }
+
+    @Nullable
+    public static EquipmentOverride getEquipmentOverride(int entityId) {
+        return equipmentOverrides.get(entityId);
+    }
+
+    /**
+     * Adds passengers to every passenger packet of a vehicle sent to the viewers of the injection.
+     * @param vehicleId The vehicle
+     * @param injection The passengers to add
+     */
+    public static void setPassengerInjection(int vehicleId, @NotNull PassengerInjection injection) {
+        synchronized (LOCK) {
+            passengerInjections = with(passengerInjections, map -> map.put(vehicleId, injection));
+        }
+    }
+
+    public static void removePassengerInjection(int vehicleId) {
+        synchronized (LOCK) {
+            if (!passengerInjections.containsKey(vehicleId)) return;
+            passengerInjections = with(passengerInjections, map -> map.remove(vehicleId));
+        }
+    }
+
+    @Nullable
+    public static PassengerInjection getPassengerInjection(int vehicleId) {
+        return passengerInjections.get(vehicleId);
+    }
+
+    /**
+     * Shows an item in a slot of a player's own inventory, without changing the actual item.
+     * @param viewer The player whose inventory shows the item
+     * @param slot The slot in the inventory menu (window 0)
+     * @param item The item to show
+     */
+    public static void setSlotOverlay(@NotNull Player viewer, int slot, @NotNull ItemStack item) {
+        int viewerId = viewer.getEntityId();
+        RuleItem overlay = new RuleItem(item);
+        synchronized (LOCK) {
+            slotOverlays = with(slotOverlays, map -> {
+                Int2ObjectMap<RuleItem> slots = new Int2ObjectOpenHashMap<>(map.getOrDefault(viewerId, Int2ObjectMaps.emptyMap()));
+                slots.put(slot, overlay);
+                map.put(viewerId, Int2ObjectMaps.unmodifiable(slots));
+            });
+        }
+    }
+
+    public static void removeSlotOverlay(@NotNull Player viewer, int slot) {
+        int viewerId = viewer.getEntityId();
+        synchronized (LOCK) {
+            Int2ObjectMap<RuleItem> current = slotOverlays.get(viewerId);
+            if (current == null || !current.containsKey(slot)) return;
+            slotOverlays = with(slotOverlays, map -> {
+                Int2ObjectMap<RuleItem> slots = new Int2ObjectOpenHashMap<>(current);
+                slots.remove(slot);
+                if (slots.isEmpty()) map.remove(viewerId);
+                else map.put(viewerId, Int2ObjectMaps.unmodifiable(slots));
+            });
+        }
+    }
+
+    public static void clearSlotOverlays(@NotNull Player viewer) {
+        int viewerId = viewer.getEntityId();
+        synchronized (LOCK) {
+            if (!slotOverlays.containsKey(viewerId)) return;
+            slotOverlays = with(slotOverlays, map -> map.remove(viewerId));
+        }
+    }
+
+    /**
+     * Returns the slot overlays of a player's inventory menu, keyed by slot.
+     * @param viewerId The entity id of the player
+     * @return The overlays, or null if there are none
+     */
+    @Nullable
+    public static Int2ObjectMap<RuleItem> getSlotOverlays(int viewerId) {
+        return slotOverlays.get(viewerId);
+    }
+
+    private static <V> Int2ObjectMap<V> with(@NotNull Int2ObjectMap<V> current, @NotNull Consumer<Int2ObjectMap<V>> change) {
+        Int2ObjectMap<V> updated = new Int2ObjectOpenHashMap<>(current);
+        change.accept(updated);
+        return updated.isEmpty() ? Int2ObjectMaps.emptyMap() : Int2ObjectMaps.unmodifiable(updated);
+    }
+}
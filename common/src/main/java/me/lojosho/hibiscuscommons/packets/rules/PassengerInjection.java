@@ -0,0 +1,23 @@
+package me.lojosho.hibiscuscommons.packets.rules;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.ints.IntLists;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Adds passengers, such as a backpack entity, to every passenger packet of a vehicle.
+ */
+public final class PassengerInjection {
+
+    @Getter
+    private final IntList passengers;
+    @Getter
+    private final ViewerFilter viewers;
+
+    public PassengerInjection(int @NotNull [] passengers, @NotNull ViewerFilter viewers) {
+        this.passengers = IntLists.unmodifiable(new IntArrayList(passengers));
+        this.viewers = viewers;
+    }
+}
@@ -0,0 +1,35 @@
+package me.lojosho.hibiscuscommons.packets.rules;
+
+import lombok.Getter;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Function;
+
+/**
+ * An item used by a packet rule. The native item is converted once, on first use, and then shared by every packet the
+ * rule is applied to.
+ */
+public final class RuleItem {
+
+    @Getter
+    private final ItemStack item;
+    private volatile Object nativeItem;
+
+    public RuleItem(@NotNull ItemStack item) {
+        this.item = item.clone();
+    }
+
+    @ApiStatus.Internal
+    @NotNull
+    @SuppressWarnings("unchecked")
+    public <T> T getNativeItem(@NotNull Function<ItemStack, T> converter) {
+        Object converted = nativeItem;
+        if (converted == null) {
+            converted = converter.apply(item);
+            nativeItem = converted;
+        }
+        return (T) converted;
+    }
+}
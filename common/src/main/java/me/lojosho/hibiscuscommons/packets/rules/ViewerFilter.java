@@ -0,0 +1,55 @@
+package me.lojosho.hibiscuscommons.packets.rules;
+
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Decides which viewers a packet rule applies to. Immutable, so it can be checked from the network threads.
+ */
+public final class ViewerFilter {
+
+    private static final ViewerFilter EVERYONE = new ViewerFilter(Set.of(), false);
+
+    private final Set<UUID> viewers;
+    private final boolean whitelist;
+
+    private ViewerFilter(@NotNull Set<UUID> viewers, boolean whitelist) {
+        this.viewers = viewers;
+        this.whitelist = whitelist;
+    }
+
+    /**
+     * Returns a filter that applies to every viewer.
+     */
+    @NotNull
+    public static ViewerFilter everyone() {
+        return EVERYONE;
+    }
+
+    /**
+     * Returns a filter that applies to every viewer except the given ones, such as the owner of a cosmetic.
+     * @param viewers The viewers to exclude
+     */
+    @NotNull
+    public static ViewerFilter except(@NotNull UUID... viewers) {
+        return new ViewerFilter(Set.copyOf(Arrays.asList(viewers)), false);
+    }
+
+    /**
+     * Returns a filter that only applies to the given viewers.
+     * @param viewers The viewers to include
+     */
+    @NotNull
+    public static ViewerFilter only(@NotNull UUID... viewers) {
+        return new ViewerFilter(Set.copyOf(Arrays.asList(viewers)), true);
+    }
+
+    public boolean test(@NotNull Player viewer) {
+        if (viewers.isEmpty()) return !whitelist;
+        return viewers.contains(viewer.getUniqueId()) == whitelist;
+    }
+}
@@ -0,0 +1,147 @@
+package me.lojosho.hibiscuscommons.packets.team;
+
+import me.lojosho.hibiscuscommons.nms.NMSHandlers;
+import me.lojosho.hibiscuscommons.nms.NMSPacketBuilder;
+import me.lojosho.hibiscuscommons.packets.PacketQueue;
+import org.bukkit.entity.Player;
+import org.bukkit.scoreboard.Team;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Puts scoreboard entries, like the names of NPCs or the UUIDs of packet entities, in teams that only exist on the
+ * clients of the viewers. Entries with the same options share one team, and the teams each client has are tracked, so
+ * a team is created for a viewer once and only changes of membership are sent after that.
+ * <p>
+ * Changes are collected and sent once per tick with the {@link PacketQueue}: one packet per team that gained entries
+ * and one per team that lost entries, however many entries changed. The server's scoreboard is never touched, so this
+ * can be used from any thread.
+ */
+public class PacketTeamManager {
+
+    private static final String TEAM_PREFIX = "hc_";
+
+    private static final Map<UUID, ViewerTeams> VIEWERS = new ConcurrentHashMap<>();
+
+    /**
+     * Hides the name tag of an entry for a viewer.
+     */
+    public static void hideNameTag(@NotNull Player viewer, @NotNull String entry) {
+        setTeam(viewer, entry, Team.OptionStatus.NEVER, Team.OptionStatus.ALWAYS);
+    }
+
+    public static void hideNameTag(@NotNull Collection<Player> viewers, @NotNull String entry) {
+        for (Player viewer : viewers) hideNameTag(viewer, entry);
+    }
+
+    /**
+     * Puts an entry in the team with the given options for a viewer, moving it out of any other team of this manager.
+     * @param entry The name of a player, or the UUID of any other entity
+     */
+    public static void setTeam(@NotNull Player viewer, @NotNull String entry, @NotNull Team.OptionStatus nameTagVisibility, @NotNull Team.OptionStatus collision) {
+        String team = TEAM_PREFIX + nameTagVisibility.ordinal() + collision.ordinal();
+        VIEWERS.computeIfAbsent(viewer.getUniqueId(), uuid -> new ViewerTeams(viewer)).set(entry, team, nameTagVisibility, collision);
+    }
+
+    /**
+     * Takes an entry out of its team for a viewer.
+     */
+    public static void removeEntry(@NotNull Player viewer, @NotNull String entry) {
+        ViewerTeams teams = VIEWERS.get(viewer.getUniqueId());
+        if (teams != null) teams.set(entry, null, null, null);
+    }
+
+    public static void removeEntry(@NotNull Collection<Player> viewers, @NotNull String entry) {
+        for (Player viewer : viewers) removeEntry(viewer, entry);
+    }
+
+    /**
+     * Forgets the teams of a viewer, such as when they leave.
+     */
+    public static void clear(@NotNull Player viewer) {
+        VIEWERS.remove(viewer.getUniqueId());
+    }
+
+    /**
+     * Queues the membership changes since the last flush. Called every tick, right before the {@link PacketQueue} is sent.
+     */
+    @ApiStatus.Internal
+    public static void flush() {
+        for (ViewerTeams teams : VIEWERS.values()) {
+            if (!teams.player.isOnline()) {
+                VIEWERS.remove(teams.player.getUniqueId(), teams);
+                continue;
+            }
+            teams.flush();
+        }
+    }
+
+    private static class ViewerTeams {
+
+        private final Player player;
+        // The team each entry is in on the client, and the team it should be in
+        private final Map<String, String> sent = new HashMap<>();
+        private final Map<String, String> wanted = new HashMap<>();
+        private final Map<String, Team.OptionStatus[]> options = new HashMap<>();
+        private final Set<String> created = new HashSet<>();
+        private final Set<String> changed = new HashSet<>();
+
+        private ViewerTeams(Player player) {
+            this.player = player;
+        }
+
+        private synchronized void set(String entry, String team, Team.OptionStatus nameTagVisibility, Team.OptionStatus collision) {
+            if (team == null) {
+                if (wanted.remove(entry) == null) return;
+            } else {
+                wanted.put(entry, team);
+                options.putIfAbsent(team, new Team.OptionStatus[] {nameTagVisibility, collision});
+            }
+            changed.add(entry);
+        }
+
+        private synchronized void flush() {
+            if (changed.isEmpty()) return;
+            Map<String, List<String>> added = new HashMap<>();
+            Map<String, List<String>> removed = new HashMap<>();
+            for (String entry : changed) {
+                String team = wanted.get(entry);
+                String current = sent.get(entry);
+                if (team == null) {
+                    if (current == null) continue;
+                    removed.computeIfAbsent(current, key -> new ArrayList<>()).add(entry);
+                    sent.remove(entry);
+                } else if (!team.equals(current)) {
+                    // Joining a team leaves the previous one on the client, so only the new team has to be told
+                    added.computeIfAbsent(team, key -> new ArrayList<>()).add(entry);
+                    sent.put(entry, team);
+                }
+            }
+            changed.clear();
+
+            NMSPacketBuilder builder = NMSHandlers.getHandler().getPacketBuilder();
+            for (Map.Entry<String, List<String>> entry : removed.entrySet()) {
+                builder.buildTeamEntriesPacket(entry.getKey(), entry.getValue(), false).queuePacket(player);
+            }
+            for (Map.Entry<String, List<String>> entry : added.entrySet()) {
+                String team = entry.getKey();
+                if (created.add(team)) {
+                    Team.OptionStatus[] teamOptions = options.get(team);
+                    builder.buildTeamCreatePacket(team, teamOptions[0], teamOptions[1], entry.getValue()).queuePacket(player);
+                } else {
+                    builder.buildTeamEntriesPacket(team, entry.getValue(), true).queuePacket(player);
+                }
+            }
+        }
+    }
+}
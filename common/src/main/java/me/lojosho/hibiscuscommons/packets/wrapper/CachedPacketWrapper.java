@@ -0,0 +1,27 @@
+package me.lojosho.hibiscuscommons.packets.wrapper;
+
+/**
+ * A packet wrapper whose native packet only depends on values captured when the wrapper was built. The native packet is
+ * created the first time it is needed and reused every time the wrapper is sent after that.
+ */
+public abstract class CachedPacketWrapper implements PacketWrapper {
+
+    private volatile Object nativePacket;
+
+    @Override
+    public final Object toNativePacket() {
+        Object packet = nativePacket;
+        if (packet == null) {
+            // Building the same packet twice on a race is harmless, both are equal
+            packet = createNativePacket();
+            nativePacket = packet;
+        }
+        return packet;
+    }
+
+    /**
+     * Creates the native packet. Only called once, unless two threads send the wrapper for the first time at once.
+     * @return The native packet
+     */
+    protected abstract Object createNativePacket();
+}
@@ -0,0 +1,21 @@
+package me.lojosho.hibiscuscommons.packets.wrapper;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An entity update that can be merged with a later update of the same entity while both are waiting in the
+ * {@link me.lojosho.hibiscuscommons.packets.PacketQueue}, so only the final state goes over the wire.
+ */
+public interface CoalescingPacketWrapper extends PacketWrapper {
+
+    int getEntityId();
+
+    /**
+     * Merges a newer update of the same entity into this one.
+     * @param newer The update queued after this one
+     * @return A single update with the same result as sending both, or null if they can not be merged
+     */
+    @Nullable
+    PacketWrapper coalesce(@NotNull PacketWrapper newer);
+}
@@ -0,0 +1,47 @@
+package me.lojosho.hibiscuscommons.packets.wrapper;
+
+import lombok.Getter;
+import me.lojosho.hibiscuscommons.nms.NMSHandlers;
+import me.lojosho.hibiscuscommons.packets.PacketType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Packets that the client applies together in the same frame. The bundle is built once and can then be sent to any
+ * number of viewers, such as every player that comes into range of an entity, without converting the packets again.
+ * <p>
+ * The wrappers are captured when the bundle is created. Bundles can not contain other bundles, or more than
+ * {@link #MAX_SIZE} packets.
+ */
+public final class PacketBundle extends CachedPacketWrapper {
+
+    // The client disconnects on bundles with more packets than this
+    public static final int MAX_SIZE = 4096;
+
+    @Getter
+    private final List<PacketWrapper> wrappers;
+
+    public PacketBundle(@NotNull List<PacketWrapper> wrappers) {
+        if (wrappers.size() > MAX_SIZE) throw new IllegalArgumentException("A bundle can hold at most " + MAX_SIZE + " packets, got " + wrappers.size());
+        for (PacketWrapper wrapper : wrappers) {
+            if (wrapper instanceof PacketBundle) throw new IllegalArgumentException("A bundle can not contain another bundle");
+        }
+        this.wrappers = List.copyOf(wrappers);
+    }
+
+    @NotNull
+    public static PacketBundle of(@NotNull PacketWrapper... wrappers) {
+        return new PacketBundle(List.of(wrappers));
+    }
+
+    @Override
+    public PacketType getType() {
+        return PacketType.BUNDLE;
+    }
+
+    @Override
+    protected Object createNativePacket() {
+        return NMSHandlers.getHandler().getPacketSender().createBundlePacket(wrappers);
+    }
+}
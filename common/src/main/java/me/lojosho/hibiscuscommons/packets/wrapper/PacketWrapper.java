@@ -1,6 +1,7 @@
 package me.lojosho.hibiscuscommons.packets.wrapper;
 
 import me.lojosho.hibiscuscommons.nms.NMSHandlers;
+import me.lojosho.hibiscuscommons.packets.PacketQueue;
 import me.lojosho.hibiscuscommons.packets.PacketType;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
@@ -20,4 +21,37 @@ public interface PacketWrapper {
         NMSHandlers.getHandler().getPacketSender().sendPacket(this, players);
     }
 
+    /**
+     * Sends the packet to many players, serializing it only once.
+     * @see me.lojosho.hibiscuscommons.nms.NMSPacketSender#broadcastPacket(PacketWrapper, List)
+     */
+    default void broadcastPacket(@NotNull List<Player> players) {
+        NMSHandlers.getHandler().getPacketSender().broadcastPacket(this, players);
+    }
+
+    /**
+     * Writes the packet without flushing the connection. The connection is flushed together with every other packet
+     * written to it this tick, which saves a flush per packet.
+     * @see PacketQueue
+     */
+    default void writePacket(@NotNull Player... players) {
+        NMSHandlers.getHandler().getPacketSender().writePacket(this, players);
+    }
+
+    default void writePacket(@NotNull List<Player> players) {
+        NMSHandlers.getHandler().getPacketSender().writePacket(this, players);
+    }
+
+    /**
+     * Queues the packet to be sent with every other queued packet of the player at the end of the tick.
+     * @see PacketQueue
+     */
+    default void queuePacket(@NotNull Player... players) {
+        for (Player player : players) PacketQueue.queue(this, player);
+    }
+
+    default void queuePacket(@NotNull List<Player> players) {
+        for (Player player : players) PacketQueue.queue(this, player);
+    }
+
 }
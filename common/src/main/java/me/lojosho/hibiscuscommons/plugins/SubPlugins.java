@@ -2,6 +2,7 @@ package me.lojosho.hibiscuscommons.plugins;
 
 import com.google.common.collect.ImmutableList;
 import me.lojosho.hibiscuscommons.HibiscusPlugin;
+import me.lojosho.hibiscuscommons.packets.PacketSubscriptions;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 
@@ -20,10 +21,12 @@ public class SubPlugins {
     @ApiStatus.Internal
     public static void addSubPlugin(@NotNull HibiscusPlugin plugin) {
         SUB_PLUGINS.add(plugin);
+        PacketSubscriptions.refresh();
     }
 
     @ApiStatus.Internal
     public static void removeSubPlugin(@NotNull HibiscusPlugin plugin) {
         SUB_PLUGINS.remove(plugin);
+        PacketSubscriptions.refresh();
     }
 }
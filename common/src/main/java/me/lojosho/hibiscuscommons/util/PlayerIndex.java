@@ -0,0 +1,245 @@
+package me.lojosho.hibiscuscommons.util;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import me.lojosho.hibiscuscommons.HibiscusCommonsPlugin;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.event.vehicle.VehicleMoveEvent;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Online players sorted into a grid of chunk sized cells per world, so players near a point are found by looking at
+ * the cells around it instead of every player in the world.
+ * <p>
+ * Players are moved between cells by their movement events, and every player is checked again once a second in case an
+ * event was missed. Range queries check the exact distance to the players in the cells they touch, while viewer lookups
+ * check the chunk distance horizontally, like the server does.
+ */
+public class PlayerIndex {
+
+    private static final int CELL_SHIFT = 4;
+    private static final int REFRESH_INTERVAL = 20;
+
+    private static final Map<UUID, Long2ObjectMap<List<Player>>> WORLDS = new HashMap<>();
+    private static final Map<UUID, Cell> CELLS = new HashMap<>();
+    // Cached viewers of entities, cleared every tick
+    private static final Int2ObjectMap<List<Player>> VIEWERS = new Int2ObjectOpenHashMap<>();
+    private static int ticks = 0;
+
+    /**
+     * Calls the action for every player in the world within the radius of the point, without copying them into a list.
+     * The index can't be changed from the action.
+     */
+    public static synchronized void forEachNearby(@NotNull World world, double x, double y, double z, double radius, @NotNull Consumer<Player> action) {
+        Long2ObjectMap<List<Player>> cells = WORLDS.get(world.getUID());
+        if (cells == null) return;
+        int minX = (int) Math.floor(x - radius) >> CELL_SHIFT;
+        int maxX = (int) Math.floor(x + radius) >> CELL_SHIFT;
+        int minZ = (int) Math.floor(z - radius) >> CELL_SHIFT;
+        int maxZ = (int) Math.floor(z + radius) >> CELL_SHIFT;
+        double radiusSquared = radius * radius;
+        Location scratch = new Location(world, 0, 0, 0);
+        for (int cellX = minX; cellX <= maxX; cellX++) {
+            for (int cellZ = minZ; cellZ <= maxZ; cellZ++) {
+                List<Player> players = cells.get(key(cellX, cellZ));
+                if (players == null) continue;
+                for (int i = 0; i < players.size(); i++) {
+                    Player player = players.get(i);
+                    player.getLocation(scratch);
+                    double dx = scratch.getX() - x;
+                    double dy = scratch.getY() - y;
+                    double dz = scratch.getZ() - z;
+                    if (dx * dx + dy * dy + dz * dz <= radiusSquared) action.accept(player);
+                }
+            }
+        }
+    }
+
+    @NotNull
+    public static List<Player> getNearby(@NotNull World world, double x, double y, double z, double radius) {
+        List<Player> players = new ArrayList<>();
+        forEachNearby(world, x, y, z, radius, players::add);
+        return players;
+    }
+
+    @NotNull
+    public static List<Player> getNearby(@NotNull Location location, double radius) {
+        return getNearby(location.getWorld(), location.getX(), location.getY(), location.getZ(), radius);
+    }
+
+    /**
+     * Returns the players that can see the entity. Only players within the server view distance of the entity's chunk
+     * are checked, as no player further away has the chunk loaded. The list is a new copy every call.
+     * @see ServerUtils#getViewers(Entity)
+     */
+    @NotNull
+    public static List<Player> getViewers(@NotNull Entity entity) {
+        if (HibiscusCommonsPlugin.isOnPaper()) return new ArrayList<>(entity.getTrackedBy());
+        List<Player> viewers = new ArrayList<>();
+        Location location = entity.getLocation();
+        int chunkX = location.getBlockX() >> CELL_SHIFT;
+        int chunkZ = location.getBlockZ() >> CELL_SHIFT;
+        int distance = Bukkit.getViewDistance();
+        forEachInCells(entity.getWorld(), chunkX - distance, chunkX + distance, chunkZ - distance, chunkZ + distance, player -> {
+            if (player.canSee(entity)) viewers.add(player);
+        });
+        return viewers;
+    }
+
+    /**
+     * Returns the players that can see the entity, like {@link #getViewers(Entity)}, but keeps the result for the rest of
+     * the tick. Calling this for the same entity again in the same tick returns the same list, even if a player came into
+     * range or left since. The list can't be changed.
+     * <p>
+     * Meant for code that looks up the viewers of the same entity many times per tick, such as every cosmetic of a player.
+     */
+    @NotNull
+    public static synchronized List<Player> getCachedViewers(@NotNull Entity entity) {
+        List<Player> viewers = VIEWERS.get(entity.getEntityId());
+        if (viewers != null) return viewers;
+        viewers = List.copyOf(getViewers(entity));
+        VIEWERS.put(entity.getEntityId(), viewers);
+        return viewers;
+    }
+
+    /**
+     * Moves the player to the cell of the location, if it is a different cell.
+     */
+    public static synchronized void update(@NotNull Player player, @NotNull Location location) {
+        if (location.getWorld() == null) return;
+        UUID world = location.getWorld().getUID();
+        long key = key(location.getBlockX() >> CELL_SHIFT, location.getBlockZ() >> CELL_SHIFT);
+        Cell current = CELLS.get(player.getUniqueId());
+        if (current != null) {
+            if (current.world.equals(world) && current.key == key) return;
+            removeFromCell(player, current);
+        }
+        CELLS.put(player.getUniqueId(), new Cell(world, key));
+        Long2ObjectMap<List<Player>> cells = WORLDS.computeIfAbsent(world, uuid -> new Long2ObjectOpenHashMap<>());
+        List<Player> players = cells.get(key);
+        if (players == null) {
+            players = new ObjectArrayList<>();
+            cells.put(key, players);
+        }
+        players.add(player);
+    }
+
+    public static synchronized void remove(@NotNull Player player) {
+        Cell current = CELLS.remove(player.getUniqueId());
+        if (current != null) removeFromCell(player, current);
+    }
+
+    /**
+     * Clears the viewers kept for this tick, and checks every player again once a second.
+     */
+    @ApiStatus.Internal
+    public static synchronized void tick() {
+        VIEWERS.clear();
+        if (++ticks % REFRESH_INTERVAL != 0) return;
+        for (Player player : Bukkit.getOnlinePlayers()) update(player, player.getLocation());
+    }
+
+    @ApiStatus.Internal
+    public static void start(@NotNull HibiscusCommonsPlugin plugin) {
+        for (Player player : Bukkit.getOnlinePlayers()) update(player, player.getLocation());
+        plugin.getServer().getPluginManager().registerEvents(new IndexListener(), plugin);
+    }
+
+    private static synchronized void forEachInCells(World world, int minX, int maxX, int minZ, int maxZ, Consumer<Player> action) {
+        Long2ObjectMap<List<Player>> cells = WORLDS.get(world.getUID());
+        if (cells == null) return;
+        for (int cellX = minX; cellX <= maxX; cellX++) {
+            for (int cellZ = minZ; cellZ <= maxZ; cellZ++) {
+                List<Player> players = cells.get(key(cellX, cellZ));
+                if (players == null) continue;
+                for (int i = 0; i < players.size(); i++) action.accept(players.get(i));
+            }
+        }
+    }
+
+    private static void removeFromCell(Player player, Cell cell) {
+        Long2ObjectMap<List<Player>> cells = WORLDS.get(cell.world);
+        if (cells == null) return;
+        List<Player> players = cells.get(cell.key);
+        if (players == null) return;
+        players.remove(player);
+        if (players.isEmpty()) cells.remove(cell.key);
+        if (cells.isEmpty()) WORLDS.remove(cell.world);
+    }
+
+    private static long key(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    private record Cell(UUID world, long key) {}
+
+    private static class IndexListener implements Listener {
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onJoin(PlayerJoinEvent event) {
+            update(event.getPlayer(), event.getPlayer().getLocation());
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onQuit(PlayerQuitEvent event) {
+            remove(event.getPlayer());
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+        public void onMove(PlayerMoveEvent event) {
+            Location from = event.getFrom();
+            Location to = event.getTo();
+            if (from.getBlockX() >> CELL_SHIFT == to.getBlockX() >> CELL_SHIFT
+                    && from.getBlockZ() >> CELL_SHIFT == to.getBlockZ() >> CELL_SHIFT
+                    && from.getWorld() == to.getWorld()) return;
+            update(event.getPlayer(), to);
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+        public void onTeleport(PlayerTeleportEvent event) {
+            update(event.getPlayer(), event.getTo());
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onRespawn(PlayerRespawnEvent event) {
+            update(event.getPlayer(), event.getRespawnLocation());
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onWorldChange(PlayerChangedWorldEvent event) {
+            update(event.getPlayer(), event.getPlayer().getLocation());
+        }
+
+        // Riding players don't call move events
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onVehicleMove(VehicleMoveEvent event) {
+            for (Entity passenger : event.getVehicle().getPassengers()) {
+                if (passenger instanceof Player player) update(player, event.getTo());
+            }
+        }
+    }
+}
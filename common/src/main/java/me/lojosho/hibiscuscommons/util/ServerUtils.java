@@ -1,7 +1,6 @@
 package me.lojosho.hibiscuscommons.util;
 
-import me.lojosho.hibiscuscommons.HibiscusCommonsPlugin;
-import me.lojosho.hibiscuscommons.nms.NMSHandlers;
+import me.lojosho.hibiscuscommons.packets.entity.EntityIdAllocator;
 import org.bukkit.Color;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
@@ -10,14 +9,16 @@ import org.bukkit.profile.PlayerTextures;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 public class ServerUtils {
 
+    /**
+     * Returns an unused entity id for a packet entity. It can be given back with {@link EntityIdAllocator#release(int)}.
+     */
     public static int getNextEntityId() {
-        return NMSHandlers.getHandler().getUtilHandler().getNextEntityId();
+        return EntityIdAllocator.allocate();
     }
 
     @Nullable
@@ -94,17 +95,13 @@ public class ServerUtils {
     /**
      * Get the viewers of an entity (Players only) that can see the entity in the world.
      * This ignores config view distances and checks directly with the server.
+     * The list is looked up again on every call, see {@link PlayerIndex#getCachedViewers(Entity)} for a cached lookup.
      * @param entity
      * @return
      */
     @NotNull
     public static List<Player> getViewers(@NotNull Entity entity) {
-        if (HibiscusCommonsPlugin.isOnPaper()) return List.copyOf(entity.getTrackedBy());
-        ArrayList<Player> viewers = new ArrayList<>();
-        for (Player player : entity.getLocation().getWorld().getPlayers()) {
-            if (player.canSee(entity)) viewers.add(player);
-        }
-        return viewers;
+        return PlayerIndex.getViewers(entity);
     }
 
     public static boolean hasClass(String className) {
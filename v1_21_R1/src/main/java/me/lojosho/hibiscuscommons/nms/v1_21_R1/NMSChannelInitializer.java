@@ -0,0 +1,29 @@
+package me.lojosho.hibiscuscommons.nms.v1_21_R1;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.papermc.paper.network.ChannelInitializeListenerHolder;
+import net.kyori.adventure.key.Key;
+import net.minecraft.network.Connection;
+
+/**
+ * Adds the packet handler while Paper sets up a new connection, on the connection's own event loop. Kept in its own
+ * class so the Paper only classes are never loaded on Spigot.
+ */
+class NMSChannelInitializer {
+
+    private static final Key KEY = Key.key("hibiscuscommons", "packet_handler");
+
+    static void register() {
+        ChannelInitializeListenerHolder.addListener(KEY, channel -> {
+            ChannelPipeline pipeline = channel.pipeline();
+            ChannelHandlerContext context = pipeline.context(Connection.class);
+            if (context == null || pipeline.get(NMSPacketChannel.NAME) != null) return;
+            pipeline.addBefore(context.name(), NMSPacketChannel.NAME, new NMSPacketChannel((Connection) context.handler()));
+        });
+    }
+
+    static void unregister() {
+        if (ChannelInitializeListenerHolder.hasListener(KEY)) ChannelInitializeListenerHolder.removeListener(KEY);
+    }
+}
@@ -4,6 +4,7 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.mojang.serialization.JsonOps;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPipeline;
 import me.lojosho.hibiscuscommons.HibiscusCommonsPlugin;
 import me.lojosho.hibiscuscommons.nms.NMSHandler;
@@ -34,15 +35,45 @@ import org.bukkit.inventory.meta.ItemMeta;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class NMSUtils implements me.lojosho.hibiscuscommons.nms.NMSUtils {
 
+    private static final AtomicInteger ENTITY_COUNTER = findEntityCounter();
+
     @Override
     public int getNextEntityId() {
         return net.minecraft.world.entity.Entity.nextEntityId();
     }
 
+    @Override
+    public int reserveEntityIds(int count) {
+        if (ENTITY_COUNTER == null) return -1;
+        // The server increments before using an id, so the block starts after the current value
+        return ENTITY_COUNTER.getAndAdd(count) + 1;
+    }
+
+    // The counter is named differently on Spigot and Paper, but it is the only static AtomicInteger of Entity
+    @Nullable
+    private static AtomicInteger findEntityCounter() {
+        Field counter = null;
+        for (Field field : net.minecraft.world.entity.Entity.class.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) || field.getType() != AtomicInteger.class) continue;
+            if (counter != null) return null;
+            counter = field;
+        }
+        if (counter == null) return null;
+        try {
+            counter.setAccessible(true);
+            return (AtomicInteger) counter.get(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
     @Override
     public org.bukkit.entity.Entity getEntity(int entityId) {
         net.minecraft.world.entity.Entity entity = getNMSEntity(entityId);
@@ -80,13 +111,33 @@ public class NMSUtils implements me.lojosho.hibiscuscommons.nms.NMSUtils {
     @Override
     public void handleChannelOpen(@NotNull Player player) {
         Channel channel = ((CraftPlayer) player).getHandle().connection.connection.channel;
-        ChannelPipeline pipeline = channel.pipeline();
+        channel.eventLoop().execute(() -> {
+            ChannelPipeline pipeline = channel.pipeline();
+            if (pipeline.get(NMSPacketChannel.NAME) != null) return;
+            ChannelHandlerContext context = pipeline.context(Connection.class);
+            if (context == null) return;
+            pipeline.addBefore(context.name(), NMSPacketChannel.NAME, new NMSPacketChannel(player));
+        });
+    }
+
+    @Override
+    public void handleChannelClose(@NotNull Player player) {
+        Channel channel = ((CraftPlayer) player).getHandle().connection.connection.channel;
+        channel.eventLoop().execute(() -> {
+            if (channel.pipeline().get(NMSPacketChannel.NAME) != null) channel.pipeline().remove(NMSPacketChannel.NAME);
+        });
+    }
 
-        NMSPacketChannel channelHandler = new NMSPacketChannel(player);
-        for (String key : pipeline.toMap().keySet()) {
-            if (!(pipeline.get(key) instanceof Connection)) continue;
-            pipeline.addBefore(key, "hibiscus_channel_handler", channelHandler);
-        }
+    @Override
+    public boolean registerChannelInitializer() {
+        if (!HibiscusCommonsPlugin.isOnPaper()) return false;
+        NMSChannelInitializer.register();
+        return true;
+    }
+
+    @Override
+    public void unregisterChannelInitializer() {
+        if (HibiscusCommonsPlugin.isOnPaper()) NMSChannelInitializer.unregister();
     }
 
     public void sendToastAdvancement(Player player, ItemStack icon, Component title, Component description) {
@@ -0,0 +1,16 @@
+package me.lojosho.hibiscuscommons.nms.v1_21_R1.packets;
+
+import net.minecraft.network.FriendlyByteBuf;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A packet wrapper that can serialize its packet without building it, see {@link DirectPacketEncoder}.
+ */
+public interface DirectlyEncodable {
+
+    /**
+     * Writes the packet, without its packet id, exactly like the server's codec would.
+     * @param buf The buffer to write to
+     */
+    void encode(@NotNull FriendlyByteBuf buf);
+}
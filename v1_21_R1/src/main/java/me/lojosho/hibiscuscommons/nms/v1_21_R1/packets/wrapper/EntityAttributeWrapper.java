@@ -1,7 +1,7 @@
 package me.lojosho.hibiscuscommons.nms.v1_21_R1.packets.wrapper;
 
 import me.lojosho.hibiscuscommons.packets.PacketType;
-import me.lojosho.hibiscuscommons.packets.wrapper.PacketWrapper;
+import me.lojosho.hibiscuscommons.packets.wrapper.CachedPacketWrapper;
 import net.minecraft.network.protocol.game.ClientboundUpdateAttributesPacket;
 import net.minecraft.world.entity.ai.attributes.AttributeInstance;
 import org.bukkit.attribute.Attribute;
@@ -9,7 +9,7 @@ import org.bukkit.craftbukkit.attribute.CraftAttribute;
 
 import java.util.List;
 
-public class EntityAttributeWrapper implements PacketWrapper {
+public class EntityAttributeWrapper extends CachedPacketWrapper {
 
     private final int entityId;
     private final Attribute bukkitAttribute;
@@ -27,7 +27,7 @@ public class EntityAttributeWrapper implements PacketWrapper {
     }
 
     @Override
-    public Object toNativePacket() {
+    protected Object createNativePacket() {
         AttributeInstance attribute = new AttributeInstance(
                 CraftAttribute.bukkitToMinecraftHolder(bukkitAttribute),
                 (ignored) -> {}
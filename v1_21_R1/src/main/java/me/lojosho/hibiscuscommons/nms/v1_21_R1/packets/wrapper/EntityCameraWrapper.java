@@ -1,15 +1,12 @@
 package me.lojosho.hibiscuscommons.nms.v1_21_R1.packets.wrapper;
 
+import io.netty.buffer.Unpooled;
 import me.lojosho.hibiscuscommons.packets.PacketType;
-import me.lojosho.hibiscuscommons.packets.wrapper.PacketWrapper;
+import me.lojosho.hibiscuscommons.packets.wrapper.CachedPacketWrapper;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.protocol.game.ClientboundSetCameraPacket;
-import net.minecraft.server.MinecraftServer;
-import net.minecraft.world.entity.Entity;
-import net.minecraft.world.entity.decoration.ArmorStand;
 
-public class EntityCameraWrapper implements PacketWrapper {
-
-    private static final Entity fakeNmsEntity = new ArmorStand(net.minecraft.world.entity.EntityType.ARMOR_STAND, MinecraftServer.getServer().overworld());
+public class EntityCameraWrapper extends CachedPacketWrapper {
 
     private final int entityId;
 
@@ -23,9 +20,10 @@ public class EntityCameraWrapper implements PacketWrapper {
     }
 
     @Override
-    public Object toNativePacket() {
-        fakeNmsEntity.setId(entityId);
-
-        return new ClientboundSetCameraPacket(fakeNmsEntity);
+    protected Object createNativePacket() {
+        // The packet can only be created from an entity, so it is read back from its serialized form instead
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer(5));
+        buf.writeVarInt(entityId);
+        return ClientboundSetCameraPacket.STREAM_CODEC.decode(buf);
     }
 }
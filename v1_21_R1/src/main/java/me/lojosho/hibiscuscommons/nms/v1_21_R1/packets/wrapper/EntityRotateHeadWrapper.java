@@ -1,15 +1,16 @@
 package me.lojosho.hibiscuscommons.nms.v1_21_R1.packets.wrapper;
 
+import io.netty.buffer.Unpooled;
+import me.lojosho.hibiscuscommons.nms.v1_21_R1.packets.DirectlyEncodable;
 import me.lojosho.hibiscuscommons.packets.PacketType;
+import me.lojosho.hibiscuscommons.packets.wrapper.CachedPacketWrapper;
+import me.lojosho.hibiscuscommons.packets.wrapper.CoalescingPacketWrapper;
 import me.lojosho.hibiscuscommons.packets.wrapper.PacketWrapper;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.protocol.game.ClientboundRotateHeadPacket;
-import net.minecraft.server.MinecraftServer;
-import net.minecraft.world.entity.Entity;
-import net.minecraft.world.entity.decoration.ArmorStand;
+import org.jetbrains.annotations.NotNull;
 
-public class EntityRotateHeadWrapper implements PacketWrapper {
-
-    private static final Entity fakeNmsEntity = new ArmorStand(net.minecraft.world.entity.EntityType.ARMOR_STAND, MinecraftServer.getServer().overworld());
+public class EntityRotateHeadWrapper extends CachedPacketWrapper implements CoalescingPacketWrapper, DirectlyEncodable {
 
     private final int entityId;
     private final float yaw;
@@ -25,10 +26,26 @@ public class EntityRotateHeadWrapper implements PacketWrapper {
     }
 
     @Override
-    public Object toNativePacket() {
-        fakeNmsEntity.setId(entityId);
-        byte headRot = (byte) (yaw * 256.0F / 360.0F);
+    public int getEntityId() {
+        return entityId;
+    }
+
+    @Override
+    public PacketWrapper coalesce(@NotNull PacketWrapper newer) {
+        return newer instanceof EntityRotateHeadWrapper ? newer : null;
+    }
 
-        return new ClientboundRotateHeadPacket(fakeNmsEntity, headRot);
+    @Override
+    protected Object createNativePacket() {
+        // The packet can only be created from an entity, so it is read back from its serialized form instead
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer(6));
+        encode(buf);
+        return ClientboundRotateHeadPacket.STREAM_CODEC.decode(buf);
+    }
+
+    @Override
+    public void encode(@NotNull FriendlyByteBuf buf) {
+        buf.writeVarInt(entityId);
+        buf.writeByte((byte) (yaw * 256.0F / 360.0F));
     }
 }
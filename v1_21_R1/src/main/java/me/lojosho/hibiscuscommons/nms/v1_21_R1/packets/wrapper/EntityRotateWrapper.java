@@ -1,10 +1,15 @@
 package me.lojosho.hibiscuscommons.nms.v1_21_R1.packets.wrapper;
 
+import me.lojosho.hibiscuscommons.nms.v1_21_R1.packets.DirectlyEncodable;
 import me.lojosho.hibiscuscommons.packets.PacketType;
+import me.lojosho.hibiscuscommons.packets.wrapper.CachedPacketWrapper;
+import me.lojosho.hibiscuscommons.packets.wrapper.CoalescingPacketWrapper;
 import me.lojosho.hibiscuscommons.packets.wrapper.PacketWrapper;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.protocol.game.ClientboundMoveEntityPacket;
+import org.jetbrains.annotations.NotNull;
 
-public class EntityRotateWrapper implements PacketWrapper {
+public class EntityRotateWrapper extends CachedPacketWrapper implements CoalescingPacketWrapper, DirectlyEncodable {
 
     private final int entityId;
     private final float originalYaw;
@@ -24,10 +29,37 @@ public class EntityRotateWrapper implements PacketWrapper {
     }
 
     @Override
-    public Object toNativePacket() {
+    public int getEntityId() {
+        return entityId;
+    }
+
+    @Override
+    public PacketWrapper coalesce(@NotNull PacketWrapper newer) {
+        return newer instanceof EntityRotateWrapper ? newer : null;
+    }
+
+    @Override
+    protected Object createNativePacket() {
         float ROTATION_FACTOR = 256.0F / 360.0F;
         byte yaw = (byte) (originalYaw * ROTATION_FACTOR);
         byte pitch = (byte) (originalPitch * ROTATION_FACTOR);
         return new ClientboundMoveEntityPacket.Rot(entityId, yaw, pitch, onGround);
     }
+
+    @Override
+    public void encode(@NotNull FriendlyByteBuf buf) {
+        float ROTATION_FACTOR = 256.0F / 360.0F;
+        buf.writeVarInt(entityId);
+        buf.writeByte((byte) (originalYaw * ROTATION_FACTOR));
+        buf.writeByte((byte) (originalPitch * ROTATION_FACTOR));
+        buf.writeBoolean(onGround);
+    }
+
+    float getYaw() {
+        return originalYaw;
+    }
+
+    float getPitch() {
+        return originalPitch;
+    }
 }
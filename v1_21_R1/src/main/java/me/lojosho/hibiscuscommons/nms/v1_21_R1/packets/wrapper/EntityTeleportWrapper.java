@@ -1,15 +1,16 @@
 package me.lojosho.hibiscuscommons.nms.v1_21_R1.packets.wrapper;
 
+import io.netty.buffer.Unpooled;
+import me.lojosho.hibiscuscommons.nms.v1_21_R1.packets.DirectlyEncodable;
 import me.lojosho.hibiscuscommons.packets.PacketType;
+import me.lojosho.hibiscuscommons.packets.wrapper.CachedPacketWrapper;
+import me.lojosho.hibiscuscommons.packets.wrapper.CoalescingPacketWrapper;
 import me.lojosho.hibiscuscommons.packets.wrapper.PacketWrapper;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.protocol.game.ClientboundTeleportEntityPacket;
-import net.minecraft.server.MinecraftServer;
-import net.minecraft.world.entity.Entity;
-import net.minecraft.world.entity.decoration.ArmorStand;
+import org.jetbrains.annotations.NotNull;
 
-public class EntityTeleportWrapper implements PacketWrapper {
-
-    private static final Entity fakeNmsEntity = new ArmorStand(net.minecraft.world.entity.EntityType.ARMOR_STAND, MinecraftServer.getServer().overworld());
+public class EntityTeleportWrapper extends CachedPacketWrapper implements CoalescingPacketWrapper, DirectlyEncodable {
 
     private final int entityId;
     private final double x;
@@ -41,9 +42,31 @@ public class EntityTeleportWrapper implements PacketWrapper {
     }
 
     @Override
-    public Object toNativePacket() {
-        fakeNmsEntity.setId(entityId);
-        fakeNmsEntity.teleportTo(x, y, z);
-        return new ClientboundTeleportEntityPacket(fakeNmsEntity);
+    public int getEntityId() {
+        return entityId;
+    }
+
+    @Override
+    public PacketWrapper coalesce(@NotNull PacketWrapper newer) {
+        return newer instanceof EntityTeleportWrapper ? newer : null;
+    }
+
+    @Override
+    protected Object createNativePacket() {
+        // The packet can only be created from an entity, so it is read back from its serialized form instead
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer(34));
+        encode(buf);
+        return ClientboundTeleportEntityPacket.STREAM_CODEC.decode(buf);
+    }
+
+    @Override
+    public void encode(@NotNull FriendlyByteBuf buf) {
+        buf.writeVarInt(entityId);
+        buf.writeDouble(x);
+        buf.writeDouble(y);
+        buf.writeDouble(z);
+        buf.writeByte((byte) (yaw * 256.0F / 360.0F));
+        buf.writeByte((byte) (pitch * 256.0F / 360.0F));
+        buf.writeBoolean(onGround);
     }
 }
@@ -3,6 +3,8 @@ package me.lojosho.hibiscuscommons.nms.v1_21_R2.packets;
 import it.unimi.dsi.fastutil.ints.IntList;
 import me.lojosho.hibiscuscommons.nms.NMSPacketBuilder;
 import me.lojosho.hibiscuscommons.nms.v1_21_R2.packets.wrapper.*;
+import me.lojosho.hibiscuscommons.packets.metadata.EntityMetadata;
+import me.lojosho.hibiscuscommons.packets.metadata.MetadataField;
 import me.lojosho.hibiscuscommons.packets.wrapper.PacketWrapper;
 import org.bukkit.GameMode;
 import org.bukkit.Location;
@@ -11,8 +13,10 @@ import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.EquipmentSlot;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.scoreboard.Team;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -20,8 +24,13 @@ import java.util.UUID;
 public class NMSPackets implements NMSPacketBuilder {
 
     @Override
-    public PacketWrapper buildEntityMovePacket(int entityId, @NotNull Location from, @NotNull Location to, boolean onGround) {
-        return new EntityMoveWrapper(entityId, from, to, onGround);
+    public PacketWrapper buildEntityMovePacket(int entityId, short dx, short dy, short dz, boolean onGround) {
+        return new EntityMoveWrapper(entityId, dx, dy, dz, onGround);
+    }
+
+    @Override
+    public PacketWrapper buildEntityMoveRotatePacket(int entityId, short dx, short dy, short dz, float yaw, float pitch, boolean onGround) {
+        return new EntityMoveRotateWrapper(entityId, dx, dy, dz, yaw, pitch, onGround);
     }
 
     @Override
@@ -69,6 +78,43 @@ public class NMSPackets implements NMSPacketBuilder {
         return new EntityMetadataWrapper(entityId, dataValues);
     }
 
+    @Override
+    public PacketWrapper buildEntityMetadataPacket(int entityId, @NotNull EntityMetadata metadata) {
+        return new EntityMetadataWrapper(entityId, metadata);
+    }
+
+    @Override
+    public int getMetadataIndex(@NotNull MetadataField field) {
+        return switch (field) {
+            case ENTITY_FLAGS -> 0;
+            case ENTITY_CUSTOM_NAME -> 2;
+            case ENTITY_CUSTOM_NAME_VISIBLE -> 3;
+            case ENTITY_SILENT -> 4;
+            case ENTITY_NO_GRAVITY -> 5;
+            case ARMOR_STAND_FLAGS -> 15;
+            case DISPLAY_INTERPOLATION_DELAY -> 8;
+            case DISPLAY_TRANSFORMATION_INTERPOLATION_DURATION -> 9;
+            case DISPLAY_POSITION_INTERPOLATION_DURATION -> 10;
+            case DISPLAY_TRANSLATION -> 11;
+            case DISPLAY_SCALE -> 12;
+            case DISPLAY_LEFT_ROTATION -> 13;
+            case DISPLAY_RIGHT_ROTATION -> 14;
+            case DISPLAY_BILLBOARD -> 15;
+            case DISPLAY_BRIGHTNESS -> 16;
+            case DISPLAY_VIEW_RANGE -> 17;
+            case DISPLAY_SHADOW_RADIUS -> 18;
+            case DISPLAY_SHADOW_STRENGTH -> 19;
+            case DISPLAY_WIDTH -> 20;
+            case DISPLAY_HEIGHT -> 21;
+            case DISPLAY_GLOW_COLOR -> 22;
+            case ITEM_DISPLAY_ITEM, BLOCK_DISPLAY_BLOCK, TEXT_DISPLAY_TEXT -> 23;
+            case ITEM_DISPLAY_TRANSFORM, TEXT_DISPLAY_LINE_WIDTH -> 24;
+            case TEXT_DISPLAY_BACKGROUND -> 25;
+            case TEXT_DISPLAY_OPACITY -> 26;
+            case TEXT_DISPLAY_FLAGS -> 27;
+        };
+    }
+
     @Override
     public PacketWrapper buildEntityDestroyPacket(@NotNull IntList entityIds) {
         return new EntityDestroyWrapper(entityIds);
@@ -118,4 +164,19 @@ public class NMSPackets implements NMSPacketBuilder {
     public PacketWrapper buildPlayerScoreboardAddPlayersPacket(Player player, String name) {
         return new PlayerScoreboardTeamAddPlayersWrapper(player, name);
     }
+
+    @Override
+    public PacketWrapper buildTeamCreatePacket(@NotNull String team, @NotNull Team.OptionStatus nameTagVisibility, @NotNull Team.OptionStatus collision, @NotNull Collection<String> entries) {
+        return ScoreboardTeamWrapper.create(team, nameTagVisibility, collision, entries);
+    }
+
+    @Override
+    public PacketWrapper buildTeamEntriesPacket(@NotNull String team, @NotNull Collection<String> entries, boolean add) {
+        return ScoreboardTeamWrapper.entries(team, entries, add);
+    }
+
+    @Override
+    public PacketWrapper buildTeamRemovePacket(@NotNull String team) {
+        return ScoreboardTeamWrapper.remove(team);
+    }
 }
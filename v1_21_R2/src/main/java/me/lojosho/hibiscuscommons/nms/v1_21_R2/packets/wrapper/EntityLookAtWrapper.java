@@ -1,25 +1,30 @@
 package me.lojosho.hibiscuscommons.nms.v1_21_R2.packets.wrapper;
 
+import io.netty.buffer.Unpooled;
 import me.lojosho.hibiscuscommons.packets.PacketType;
-import me.lojosho.hibiscuscommons.packets.wrapper.PacketWrapper;
+import me.lojosho.hibiscuscommons.packets.wrapper.CachedPacketWrapper;
 import net.minecraft.commands.arguments.EntityAnchorArgument;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.protocol.game.ClientboundPlayerLookAtPacket;
-import net.minecraft.server.MinecraftServer;
-import net.minecraft.world.entity.Entity;
-import net.minecraft.world.entity.decoration.ArmorStand;
+import net.minecraft.world.entity.EntityType;
 import org.bukkit.Location;
 import org.jetbrains.annotations.NotNull;
 
-public class EntityLookAtWrapper implements PacketWrapper {
+public class EntityLookAtWrapper extends CachedPacketWrapper {
 
-    private static final Entity fakeNmsEntity = new ArmorStand(net.minecraft.world.entity.EntityType.ARMOR_STAND, MinecraftServer.getServer().overworld());
+    // The packet used to be built from an armor stand at the location, so it points at the eyes of one
+    private static final double EYE_HEIGHT = EntityType.ARMOR_STAND.getDimensions().eyeHeight();
 
     private final int entityId;
-    private final Location location;
+    private final double x;
+    private final double y;
+    private final double z;
 
     public EntityLookAtWrapper(int entityId, @NotNull Location location) {
         this.entityId = entityId;
-        this.location = location;
+        this.x = location.getX();
+        this.y = location.getY();
+        this.z = location.getZ();
     }
 
     @Override
@@ -28,9 +33,16 @@ public class EntityLookAtWrapper implements PacketWrapper {
     }
 
     @Override
-    public Object toNativePacket() {
-        fakeNmsEntity.setId(entityId);
-        fakeNmsEntity.getBukkitEntity().teleport(location);
-        return new ClientboundPlayerLookAtPacket(EntityAnchorArgument.Anchor.EYES, fakeNmsEntity, EntityAnchorArgument.Anchor.EYES);
+    protected Object createNativePacket() {
+        // The packet can only point at an entity when it is built from one, so it is read back from its serialized form
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer(40));
+        buf.writeEnum(EntityAnchorArgument.Anchor.EYES);
+        buf.writeDouble(x);
+        buf.writeDouble(y + EYE_HEIGHT);
+        buf.writeDouble(z);
+        buf.writeBoolean(true);
+        buf.writeVarInt(entityId);
+        buf.writeEnum(EntityAnchorArgument.Anchor.EYES);
+        return ClientboundPlayerLookAtPacket.STREAM_CODEC.decode(buf);
     }
 }
@@ -1,25 +1,19 @@
 package me.lojosho.hibiscuscommons.nms.v1_21_R2.packets.wrapper;
 
-import com.google.common.collect.ImmutableList;
+import io.netty.buffer.Unpooled;
 import me.lojosho.hibiscuscommons.packets.PacketType;
-import me.lojosho.hibiscuscommons.packets.wrapper.PacketWrapper;
+import me.lojosho.hibiscuscommons.packets.wrapper.CachedPacketWrapper;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.protocol.game.ClientboundSetPassengersPacket;
-import net.minecraft.server.MinecraftServer;
-import net.minecraft.world.entity.Entity;
-import net.minecraft.world.entity.decoration.ArmorStand;
 
-import java.util.Arrays;
-import java.util.List;
-
-public class EntityMountWrapper implements PacketWrapper {
-    private static final Entity fakeNmsEntity = new ArmorStand(net.minecraft.world.entity.EntityType.ARMOR_STAND, MinecraftServer.getServer().overworld());
+public class EntityMountWrapper extends CachedPacketWrapper {
 
     private final int mountId;
     private final int[] passengerIds;
 
     public EntityMountWrapper(int mountId, int[] passengerIds) {
         this.mountId = mountId;
-        this.passengerIds = passengerIds;
+        this.passengerIds = passengerIds.clone();
     }
 
     @Override
@@ -28,15 +22,11 @@ public class EntityMountWrapper implements PacketWrapper {
     }
 
     @Override
-    public Object toNativePacket() {
-        List<Entity> passengers = Arrays.stream(passengerIds).mapToObj(id -> {
-            Entity passenger = new ArmorStand(net.minecraft.world.entity.EntityType.ARMOR_STAND, MinecraftServer.getServer().overworld());
-            passenger.setId(id);
-            return passenger;
-        }).toList();
-        fakeNmsEntity.setId(mountId);
-        fakeNmsEntity.ejectPassengers();
-        fakeNmsEntity.passengers = ImmutableList.copyOf(passengers);
-        return new ClientboundSetPassengersPacket(fakeNmsEntity);
+    protected Object createNativePacket() {
+        // The packet can only be created from an entity, so it is read back from its serialized form instead
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer(5 * (passengerIds.length + 2)));
+        buf.writeVarInt(mountId);
+        buf.writeVarIntArray(passengerIds);
+        return ClientboundSetPassengersPacket.STREAM_CODEC.decode(buf);
     }
 }
@@ -1,22 +1,27 @@
 package me.lojosho.hibiscuscommons.nms.v1_21_R2.packets.wrapper;
 
+import me.lojosho.hibiscuscommons.nms.v1_21_R2.packets.DirectlyEncodable;
 import me.lojosho.hibiscuscommons.packets.PacketType;
+import me.lojosho.hibiscuscommons.packets.wrapper.CachedPacketWrapper;
+import me.lojosho.hibiscuscommons.packets.wrapper.CoalescingPacketWrapper;
 import me.lojosho.hibiscuscommons.packets.wrapper.PacketWrapper;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.protocol.game.ClientboundMoveEntityPacket;
-import org.bukkit.Location;
 import org.jetbrains.annotations.NotNull;
 
-public class EntityMoveWrapper implements PacketWrapper {
+public class EntityMoveWrapper extends CachedPacketWrapper implements CoalescingPacketWrapper, DirectlyEncodable {
 
     private final int entityId;
-    private final @NotNull Location from;
-    private final @NotNull Location to;
+    private final short dx;
+    private final short dy;
+    private final short dz;
     private final boolean onGround;
 
-    public EntityMoveWrapper(int entityId, @NotNull Location from, @NotNull Location to, boolean onGround) {
+    public EntityMoveWrapper(int entityId, short dx, short dy, short dz, boolean onGround) {
         this.entityId = entityId;
-        this.from = from;
-        this.to = to;
+        this.dx = dx;
+        this.dy = dy;
+        this.dz = dz;
         this.onGround = onGround;
     }
 
@@ -26,11 +31,50 @@ public class EntityMoveWrapper implements PacketWrapper {
     }
 
     @Override
-    public Object toNativePacket() {
-        byte dx = (byte) (to.getX() -  from.getX());
-        byte dy = (byte) (to.getY() - from.getY());
-        byte dz = (byte) (to.getZ() - from.getZ());
+    public int getEntityId() {
+        return entityId;
+    }
+
+    @Override
+    public PacketWrapper coalesce(@NotNull PacketWrapper newer) {
+        if (newer instanceof EntityTeleportWrapper) return newer;
+        if (newer instanceof EntityMoveRotateWrapper move) return move.addedTo(dx, dy, dz);
+        if (!(newer instanceof EntityMoveWrapper move)) return null;
+        int x = dx + move.dx;
+        int y = dy + move.dy;
+        int z = dz + move.dz;
+        // The summed move has to fit in a single relative move
+        if (x != (short) x || y != (short) y || z != (short) z) return null;
+        return new EntityMoveWrapper(entityId, (short) x, (short) y, (short) z, move.onGround);
+    }
 
+    @Override
+    protected Object createNativePacket() {
         return new ClientboundMoveEntityPacket.Pos(entityId, dx, dy, dz, onGround);
     }
+
+    @Override
+    public void encode(@NotNull FriendlyByteBuf buf) {
+        buf.writeVarInt(entityId);
+        buf.writeShort(dx);
+        buf.writeShort(dy);
+        buf.writeShort(dz);
+        buf.writeBoolean(onGround);
+    }
+
+    short getDx() {
+        return dx;
+    }
+
+    short getDy() {
+        return dy;
+    }
+
+    short getDz() {
+        return dz;
+    }
+
+    boolean isOnGround() {
+        return onGround;
+    }
 }
@@ -4,9 +4,6 @@ import me.lojosho.hibiscuscommons.nms.v1_21_R2.packets.wrapper.PlayerScoreboardT
 import me.lojosho.hibiscuscommons.packets.PacketType;
 import net.minecraft.network.protocol.game.ClientboundSetPlayerTeamPacket;
 import net.minecraft.world.scores.PlayerTeam;
-import net.minecraft.world.scores.Team;
-import org.bukkit.Bukkit;
-import org.bukkit.craftbukkit.scoreboard.CraftScoreboard;
 import org.bukkit.entity.Player;
 
 public class PlayerScoreboardTeamCreateWrapper extends PlayerScoreboardTeamWrapper {
@@ -23,10 +20,7 @@ public class PlayerScoreboardTeamCreateWrapper extends PlayerScoreboardTeamWrapp
     @Override
     public Object toNativePacket() {
         //Creating the team
-        PlayerTeam team = new PlayerTeam(((CraftScoreboard) Bukkit.getScoreboardManager().getMainScoreboard()).getHandle(), name);
-
-        //Setting name visibility
-        team.setNameTagVisibility(Team.Visibility.NEVER);
+        PlayerTeam team = createTeam();
 
         //Creating the Team
         return ClientboundSetPlayerTeamPacket.createAddOrModifyPacket(team, true);
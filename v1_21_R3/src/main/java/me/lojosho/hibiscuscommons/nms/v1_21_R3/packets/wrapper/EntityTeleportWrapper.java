@@ -1,14 +1,19 @@
 package me.lojosho.hibiscuscommons.nms.v1_21_R3.packets.wrapper;
 
+import me.lojosho.hibiscuscommons.nms.v1_21_R3.packets.DirectlyEncodable;
 import me.lojosho.hibiscuscommons.packets.PacketType;
+import me.lojosho.hibiscuscommons.packets.wrapper.CachedPacketWrapper;
+import me.lojosho.hibiscuscommons.packets.wrapper.CoalescingPacketWrapper;
 import me.lojosho.hibiscuscommons.packets.wrapper.PacketWrapper;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.protocol.game.ClientboundTeleportEntityPacket;
 import net.minecraft.world.entity.PositionMoveRotation;
 import net.minecraft.world.phys.Vec3;
+import org.jetbrains.annotations.NotNull;
 
 import java.util.Set;
 
-public class EntityTeleportWrapper implements PacketWrapper {
+public class EntityTeleportWrapper extends CachedPacketWrapper implements CoalescingPacketWrapper, DirectlyEncodable {
 
     private final int entityId;
     private final double x;
@@ -40,7 +45,34 @@ public class EntityTeleportWrapper implements PacketWrapper {
     }
 
     @Override
-    public Object toNativePacket() {
+    public int getEntityId() {
+        return entityId;
+    }
+
+    @Override
+    public PacketWrapper coalesce(@NotNull PacketWrapper newer) {
+        return newer instanceof EntityTeleportWrapper ? newer : null;
+    }
+
+    @Override
+    protected Object createNativePacket() {
         return ClientboundTeleportEntityPacket.teleport(entityId, new PositionMoveRotation(new Vec3(x, y, z), Vec3.ZERO, yaw, pitch), Set.of(), onGround);
     }
+
+    @Override
+    public void encode(@NotNull FriendlyByteBuf buf) {
+        buf.writeVarInt(entityId);
+        buf.writeDouble(x);
+        buf.writeDouble(y);
+        buf.writeDouble(z);
+        // No velocity
+        buf.writeDouble(0);
+        buf.writeDouble(0);
+        buf.writeDouble(0);
+        buf.writeFloat(yaw);
+        buf.writeFloat(pitch);
+        // No relative flags
+        buf.writeInt(0);
+        buf.writeBoolean(onGround);
+    }
 }
@@ -1,7 +1,7 @@
 package me.lojosho.hibiscuscommons.nms.v1_21_R3.packets.wrapper;
 
 import me.lojosho.hibiscuscommons.packets.PacketType;
-import me.lojosho.hibiscuscommons.packets.wrapper.PacketWrapper;
+import me.lojosho.hibiscuscommons.packets.wrapper.CachedPacketWrapper;
 import net.minecraft.network.protocol.game.ClientboundContainerSetSlotPacket;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.player.Inventory;
@@ -10,24 +10,15 @@ import org.bukkit.craftbukkit.inventory.CraftItemStack;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
-public class PlayerSlotUpdateWrapper implements PacketWrapper {
+public class PlayerSlotUpdateWrapper extends CachedPacketWrapper {
 
-    private final Player player;
-    private final int slot;
+    private final int containerId;
+    private final int stateId;
+    private final int index;
+    private final net.minecraft.world.item.ItemStack item;
 
     public PlayerSlotUpdateWrapper(Player player, int slot) {
-        this.player = player;
-        this.slot = slot;
-    }
-
-    @Override
-    public PacketType getType() {
-        return PacketType.PLAYER_SLOT_UPDATE;
-    }
-
-    @Override
-    public Object toNativePacket() {
-        int index = 0;
+        int index = slot;
 
         ServerPlayer player1 = ((CraftPlayer) player).getHandle();
 
@@ -40,6 +31,19 @@ public class PlayerSlotUpdateWrapper implements PacketWrapper {
         }
         ItemStack item = player.getInventory().getItem(slot);
 
-        return new ClientboundContainerSetSlotPacket(player1.inventoryMenu.containerId, player1.inventoryMenu.incrementStateId(), index, CraftItemStack.asNMSCopy(item));
+        this.containerId = player1.inventoryMenu.containerId;
+        this.stateId = player1.inventoryMenu.incrementStateId();
+        this.index = index;
+        this.item = CraftItemStack.asNMSCopy(item);
+    }
+
+    @Override
+    public PacketType getType() {
+        return PacketType.PLAYER_SLOT_UPDATE;
+    }
+
+    @Override
+    protected Object createNativePacket() {
+        return new ClientboundContainerSetSlotPacket(containerId, stateId, index, item);
     }
-}
\ No newline at end of file
+}
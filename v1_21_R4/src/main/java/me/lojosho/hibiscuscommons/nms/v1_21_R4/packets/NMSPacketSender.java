@@ -1,6 +1,10 @@
 package me.lojosho.hibiscuscommons.nms.v1_21_R4.packets;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import me.lojosho.hibiscuscommons.packets.PacketQueue;
 import me.lojosho.hibiscuscommons.packets.wrapper.PacketWrapper;
+import net.minecraft.network.Connection;
 import net.minecraft.network.protocol.Packet;
 import net.minecraft.network.protocol.game.ClientGamePacketListener;
 import net.minecraft.network.protocol.game.ClientboundBundlePacket;
@@ -11,47 +15,127 @@ import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jspecify.annotations.NonNull;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class NMSPacketSender implements me.lojosho.hibiscuscommons.nms.NMSPacketSender {
 
+    // Below this many players, serializing once is not worth leaving the regular send path
+    private static final int BROADCAST_THRESHOLD = 8;
+
     @Override
     public void sendPacket(@NotNull PacketWrapper wrapper, @NotNull Player... players) {
-        final Packet<?> packet = (Packet<?>) wrapper.toNativePacket();
-        for (Player player : players) sendPacketToPlayer(player, packet);
+        deliver(wrapper, Arrays.asList(players), true);
     }
 
     @Override
     public void sendPacket(@NonNull PacketWrapper wrapper, @NonNull List<Player> players) {
-        final Packet<?> packet = (Packet<?>) wrapper.toNativePacket();
-        for (Player player : players) sendPacketToPlayer(player, packet);
+        deliver(wrapper, players, true);
     }
 
     @Override
     public void sendBundle(@NotNull List<PacketWrapper> wrappers, @NotNull Player... players) {
-        // Convert wrappers to native packets with proper generic type
-        final List<Packet<? super ClientGamePacketListener>> packets = wrappers.stream()
-                .map(wrapper -> castToClientPacket(wrapper.toNativePacket()))
-                .collect(Collectors.toList());
-
-        // Create bundle packet with Iterable
-        final ClientboundBundlePacket bundlePacket = new ClientboundBundlePacket(packets);
+        final Packet<?> bundlePacket = (Packet<?>) createBundlePacket(wrappers);
         for (Player player : players) sendPacketToPlayer(player, bundlePacket);
     }
 
     @Override
     public void sendBundle(@NonNull List<PacketWrapper> wrappers, @NonNull List<Player> players) {
-        // Convert wrappers to native packets with proper generic type
-        final List<Packet<? super ClientGamePacketListener>> packets = wrappers.stream()
-                .map(wrapper -> castToClientPacket(wrapper.toNativePacket()))
-                .collect(Collectors.toList());
-
-        // Create bundle packet with Iterable
-        final ClientboundBundlePacket bundlePacket = new ClientboundBundlePacket(packets);
+        final Packet<?> bundlePacket = (Packet<?>) createBundlePacket(wrappers);
         for (Player player : players) sendPacketToPlayer(player, bundlePacket);
     }
 
+    @Override
+    public void broadcastPacket(@NotNull PacketWrapper wrapper, @NotNull List<Player> players) {
+        if (players.size() < BROADCAST_THRESHOLD) {
+            deliver(wrapper, players, true);
+            return;
+        }
+
+        Packet<?> packet = null;
+        ByteBuf encoded = DirectPacketEncoder.encode(wrapper);
+        if (encoded == null) {
+            packet = (Packet<?>) wrapper.toNativePacket();
+            // Bundles are split up in the pipeline before they reach the encoder, so they can't be serialized up front
+            if (packet instanceof ClientboundBundlePacket) {
+                for (Player player : players) sendPacketToPlayer(player, packet);
+                return;
+            }
+            encoded = DirectPacketEncoder.encodeWithCodec(packet);
+        }
+
+        try {
+            for (Player player : players) {
+                if (writeEncoded(player, encoded, true)) continue;
+                if (packet == null) packet = (Packet<?>) wrapper.toNativePacket();
+                sendPacketToPlayer(player, packet);
+            }
+        } finally {
+            encoded.release();
+        }
+    }
+
+    @Override
+    public void writePacket(@NotNull PacketWrapper wrapper, @NotNull Player... players) {
+        deliver(wrapper, Arrays.asList(players), false);
+    }
+
+    @Override
+    public void writePacket(@NotNull PacketWrapper wrapper, @NotNull List<Player> players) {
+        deliver(wrapper, players, false);
+    }
+
+    @Override
+    public void flush(@NotNull Player player) {
+        ((CraftPlayer) player).getHandle().connection.connection.flushChannel();
+    }
+
+    @Override
+    public void verifyDirectEncoding() {
+        DirectPacketEncoder.verify();
+    }
+
+    @Override
+    public Object createBundlePacket(@NotNull List<PacketWrapper> wrappers) {
+        final List<Packet<? super ClientGamePacketListener>> packets = new ArrayList<>(wrappers.size());
+        for (PacketWrapper wrapper : wrappers) packets.add(castToClientPacket(wrapper.toNativePacket()));
+        return new ClientboundBundlePacket(packets);
+    }
+
+    /**
+     * Sends a packet, serialized directly when the wrapper supports it, otherwise as a native packet.
+     */
+    private void deliver(PacketWrapper wrapper, List<Player> players, boolean flush) {
+        final ByteBuf encoded = DirectPacketEncoder.encode(wrapper);
+        Packet<?> packet = null;
+        try {
+            for (Player player : players) {
+                if (encoded == null || !writeEncoded(player, encoded, flush)) {
+                    if (packet == null) packet = (Packet<?>) wrapper.toNativePacket();
+                    if (flush) sendPacketToPlayer(player, packet);
+                    else writePacketToPlayer(player, packet);
+                }
+                if (!flush) PacketQueue.markUnflushed(player);
+            }
+        } finally {
+            if (encoded != null) encoded.release();
+        }
+    }
+
+    /**
+     * Writes an already serialized packet to a player.
+     * @return False if the player's connection needs the packet serialized for it alone
+     */
+    private boolean writeEncoded(Player player, ByteBuf encoded, boolean flush) {
+        Connection connection = ((CraftPlayer) player).getHandle().connection.connection;
+        ChannelHandlerContext encoder = DirectPacketEncoder.getEncoderContext(connection);
+        if (encoder == null) return false;
+        if (flush) encoder.writeAndFlush(encoded.retainedDuplicate());
+        else encoder.write(encoded.retainedDuplicate());
+        return true;
+    }
+
     @SuppressWarnings("unchecked")
     private Packet<? super ClientGamePacketListener> castToClientPacket(Object packet) {
         return (Packet<? super ClientGamePacketListener>) packet;
@@ -62,4 +146,9 @@ public class NMSPacketSender implements me.lojosho.hibiscuscommons.nms.NMSPacket
         ServerPlayerConnection connection = nmsPlayer.connection;
         connection.send(packet);
     }
+
+    private void writePacketToPlayer(Player player, Packet<?> packet) {
+        ServerPlayer nmsPlayer = ((CraftPlayer) player).getHandle();
+        nmsPlayer.connection.connection.send(packet, null, false);
+    }
 }
@@ -0,0 +1,88 @@
+package me.lojosho.hibiscuscommons.nms.v1_21_R4.packets.wrapper;
+
+import me.lojosho.hibiscuscommons.nms.v1_21_R4.packets.DirectlyEncodable;
+import me.lojosho.hibiscuscommons.packets.PacketType;
+import me.lojosho.hibiscuscommons.packets.wrapper.CachedPacketWrapper;
+import me.lojosho.hibiscuscommons.packets.wrapper.CoalescingPacketWrapper;
+import me.lojosho.hibiscuscommons.packets.wrapper.PacketWrapper;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.protocol.game.ClientboundMoveEntityPacket;
+import org.jetbrains.annotations.NotNull;
+
+public class EntityMoveRotateWrapper extends CachedPacketWrapper implements CoalescingPacketWrapper, DirectlyEncodable {
+
+    private final int entityId;
+    private final short dx;
+    private final short dy;
+    private final short dz;
+    private final float yaw;
+    private final float pitch;
+    private final boolean onGround;
+
+    public EntityMoveRotateWrapper(int entityId, short dx, short dy, short dz, float yaw, float pitch, boolean onGround) {
+        this.entityId = entityId;
+        this.dx = dx;
+        this.dy = dy;
+        this.dz = dz;
+        this.yaw = yaw;
+        this.pitch = pitch;
+        this.onGround = onGround;
+    }
+
+    @Override
+    public PacketType getType() {
+        return PacketType.ENTITY_MOVE_ROTATE;
+    }
+
+    @Override
+    public int getEntityId() {
+        return entityId;
+    }
+
+    @Override
+    public PacketWrapper coalesce(@NotNull PacketWrapper newer) {
+        return switch (newer) {
+            case EntityTeleportWrapper teleport -> teleport;
+            case EntityMoveRotateWrapper move -> move.addedTo(dx, dy, dz);
+            case EntityMoveWrapper move -> add(move.getDx(), move.getDy(), move.getDz(), yaw, pitch, move.isOnGround());
+            case EntityRotateWrapper rotate -> new EntityMoveRotateWrapper(entityId, dx, dy, dz, rotate.getYaw(), rotate.getPitch(), onGround);
+            default -> null;
+        };
+    }
+
+    /**
+     * Returns this move with an earlier move added in front of it, or null if the sum is too large for one relative move.
+     */
+    PacketWrapper addedTo(short earlierDx, short earlierDy, short earlierDz) {
+        return add(earlierDx, earlierDy, earlierDz, yaw, pitch, onGround);
+    }
+
+    private PacketWrapper add(short otherDx, short otherDy, short otherDz, float yaw, float pitch, boolean onGround) {
+        int x = dx + otherDx;
+        int y = dy + otherDy;
+        int z = dz + otherDz;
+        // The summed move has to fit in a single relative move
+        if (x != (short) x || y != (short) y || z != (short) z) return null;
+        return new EntityMoveRotateWrapper(entityId, (short) x, (short) y, (short) z, yaw, pitch, onGround);
+    }
+
+    @Override
+    protected Object createNativePacket() {
+        return new ClientboundMoveEntityPacket.PosRot(entityId, dx, dy, dz, toAngle(yaw), toAngle(pitch), onGround);
+    }
+
+    @Override
+    public void encode(@NotNull FriendlyByteBuf buf) {
+        buf.writeVarInt(entityId);
+        buf.writeShort(dx);
+        buf.writeShort(dy);
+        buf.writeShort(dz);
+        buf.writeByte(toAngle(yaw));
+        buf.writeByte(toAngle(pitch));
+        buf.writeBoolean(onGround);
+    }
+
+    private static byte toAngle(float degrees) {
+        return (byte) (degrees * 256.0F / 360.0F);
+    }
+}
@@ -1,11 +1,11 @@
 package me.lojosho.hibiscuscommons.nms.v1_21_R4.packets.wrapper;
 
 import me.lojosho.hibiscuscommons.packets.PacketType;
-import me.lojosho.hibiscuscommons.packets.wrapper.PacketWrapper;
+import me.lojosho.hibiscuscommons.packets.wrapper.CachedPacketWrapper;
 import net.minecraft.network.protocol.game.ClientboundGameEventPacket;
 import org.bukkit.GameMode;
 
-public class PlayerGameModeWrapper implements PacketWrapper {
+public class PlayerGameModeWrapper extends CachedPacketWrapper {
 
     private final GameMode gameMode;
 
@@ -19,7 +19,7 @@ public class PlayerGameModeWrapper implements PacketWrapper {
     }
 
     @Override
-    public Object toNativePacket() {
+    protected Object createNativePacket() {
         ClientboundGameEventPacket.Type type = ClientboundGameEventPacket.CHANGE_GAME_MODE;
         float param = gameMode.getValue();
 
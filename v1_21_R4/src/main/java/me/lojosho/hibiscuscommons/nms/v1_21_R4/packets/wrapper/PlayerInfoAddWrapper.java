@@ -1,11 +1,13 @@
 package me.lojosho.hibiscuscommons.nms.v1_21_R4.packets.wrapper;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.mojang.authlib.GameProfile;
 import com.mojang.authlib.properties.Property;
 import io.papermc.paper.adventure.PaperAdventure;
 import me.lojosho.hibiscuscommons.HibiscusCommonsPlugin;
 import me.lojosho.hibiscuscommons.packets.PacketType;
-import me.lojosho.hibiscuscommons.packets.wrapper.PacketWrapper;
+import me.lojosho.hibiscuscommons.packets.wrapper.CachedPacketWrapper;
 import me.lojosho.hibiscuscommons.util.AdventureUtils;
 import net.kyori.adventure.text.Component;
 import net.minecraft.network.chat.RemoteChatSession;
@@ -14,16 +16,30 @@ import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.level.GameType;
 import org.bukkit.craftbukkit.entity.CraftPlayer;
 import org.bukkit.entity.Player;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.EnumSet;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
-public class PlayerInfoAddWrapper implements PacketWrapper {
+public class PlayerInfoAddWrapper extends CachedPacketWrapper {
+
+    // The same NPC is usually spawned for many viewers, so its profile and name are only prepared once.
+    // A skin change changes the signature, and with it the key.
+    private static final Cache<ProfileKey, GameProfile> PROFILES = CacheBuilder.newBuilder()
+            .maximumSize(1024)
+            .expireAfterAccess(5, TimeUnit.MINUTES)
+            .build();
+    private static final Cache<String, net.minecraft.network.chat.Component> NAMES = CacheBuilder.newBuilder()
+            .maximumSize(1024)
+            .expireAfterAccess(5, TimeUnit.MINUTES)
+            .build();
 
     private final Player skinnedPlayer;
     private final int entityId;
     private final UUID uuid;
     private final String npcName;
+    private final ClientboundPlayerInfoUpdatePacket.Entry entry;
 
 
     public PlayerInfoAddWrapper(final Player skinnedPlayer,
@@ -34,32 +50,44 @@ public class PlayerInfoAddWrapper implements PacketWrapper {
         this.entityId = entityId;
         this.uuid = uuid;
         this.npcName = npcName;
-    }
 
-    @Override
-    public PacketType getType() {
-        return PacketType.PLAYER_INFO_ADD;
-    }
-
-    @Override
-    public Object toNativePacket() {
+        // Read from the skinned player up front, so the packet can be converted and sent from any thread
         ServerPlayer player = ((CraftPlayer) skinnedPlayer).getHandle();
         String name = npcName;
         if (name.length() > 15) name = name.substring(0, 15);
         Property property = ((CraftPlayer) skinnedPlayer).getProfile().getProperties().get("textures").stream().findAny().orElse(null);
+        ProfileKey key = new ProfileKey(skinnedPlayer.getUniqueId(), property == null ? null : property.signature(), uuid, name);
+        GameProfile profile = PROFILES.getIfPresent(key);
+        if (profile == null) {
+            profile = new GameProfile(uuid, name);
+            if (property != null) profile.getProperties().put("textures", property);
+            PROFILES.put(key, profile);
+        }
 
-        GameProfile profile = new GameProfile(uuid, name);
-        if (property != null) profile.getProperties().put("textures", property);
-
-        Component component = AdventureUtils.MINI_MESSAGE.deserialize(name);
-        net.minecraft.network.chat.Component nmsComponent = HibiscusCommonsPlugin.isOnPaper() ? PaperAdventure.asVanilla(component) : net.minecraft.network.chat.Component.literal(name);
+        net.minecraft.network.chat.Component nmsComponent = NAMES.getIfPresent(name);
+        if (nmsComponent == null) {
+            Component component = AdventureUtils.MINI_MESSAGE.deserialize(name);
+            nmsComponent = HibiscusCommonsPlugin.isOnPaper() ? PaperAdventure.asVanilla(component) : net.minecraft.network.chat.Component.literal(name);
+            NAMES.put(name, nmsComponent);
+        }
 
         RemoteChatSession.Data chatData = null;
         RemoteChatSession session = player.getChatSession();
         if (session != null) chatData = player.getChatSession().asData();
 
-        ClientboundPlayerInfoUpdatePacket.Entry entry = new ClientboundPlayerInfoUpdatePacket.Entry(uuid, profile, false, 0, GameType.CREATIVE, nmsComponent, true, player.listOrder, chatData);
+        this.entry = new ClientboundPlayerInfoUpdatePacket.Entry(uuid, profile, false, 0, GameType.CREATIVE, nmsComponent, true, player.listOrder, chatData);
+    }
+
+    @Override
+    public PacketType getType() {
+        return PacketType.PLAYER_INFO_ADD;
+    }
+
+    @Override
+    protected Object createNativePacket() {
         EnumSet<ClientboundPlayerInfoUpdatePacket.Action> actions = EnumSet.of(ClientboundPlayerInfoUpdatePacket.Action.ADD_PLAYER);
         return new ClientboundPlayerInfoUpdatePacket(actions, entry);
     }
+
+    private record ProfileKey(UUID skinSource, @Nullable String signature, UUID uuid, String name) {}
 }
@@ -0,0 +1,100 @@
+package me.lojosho.hibiscuscommons.nms.v1_21_R4.packets.wrapper;
+
+import me.lojosho.hibiscuscommons.packets.PacketType;
+import me.lojosho.hibiscuscommons.packets.wrapper.CachedPacketWrapper;
+import net.minecraft.network.protocol.game.ClientboundSetPlayerTeamPacket;
+import net.minecraft.world.scores.PlayerTeam;
+import net.minecraft.world.scores.Scoreboard;
+import net.minecraft.world.scores.Team;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A team packet built without the server's scoreboard: creating a team, adding or removing entries, or removing it.
+ */
+public class ScoreboardTeamWrapper extends CachedPacketWrapper {
+
+    // Teams are only ever created on this scoreboard, never added to it
+    private static final Scoreboard DETACHED_SCOREBOARD = new Scoreboard();
+
+    private final Action action;
+    private final String name;
+    private final List<String> entries;
+    private final org.bukkit.scoreboard.Team.OptionStatus nameTagVisibility;
+    private final org.bukkit.scoreboard.Team.OptionStatus collision;
+
+    private ScoreboardTeamWrapper(Action action, String name, Collection<String> entries,
+                                  @Nullable org.bukkit.scoreboard.Team.OptionStatus nameTagVisibility,
+                                  @Nullable org.bukkit.scoreboard.Team.OptionStatus collision) {
+        this.action = action;
+        this.name = name;
+        this.entries = List.copyOf(entries);
+        this.nameTagVisibility = nameTagVisibility;
+        this.collision = collision;
+    }
+
+    public static ScoreboardTeamWrapper create(@NotNull String name,
+                                               @NotNull org.bukkit.scoreboard.Team.OptionStatus nameTagVisibility,
+                                               @NotNull org.bukkit.scoreboard.Team.OptionStatus collision,
+                                               @NotNull Collection<String> entries) {
+        return new ScoreboardTeamWrapper(Action.CREATE, name, entries, nameTagVisibility, collision);
+    }
+
+    public static ScoreboardTeamWrapper entries(@NotNull String name, @NotNull Collection<String> entries, boolean add) {
+        return new ScoreboardTeamWrapper(add ? Action.ADD_ENTRIES : Action.REMOVE_ENTRIES, name, entries, null, null);
+    }
+
+    public static ScoreboardTeamWrapper remove(@NotNull String name) {
+        return new ScoreboardTeamWrapper(Action.REMOVE, name, List.of(), null, null);
+    }
+
+    @Override
+    public PacketType getType() {
+        return PacketType.SCOREBOARD_TEAM;
+    }
+
+    @Override
+    protected Object createNativePacket() {
+        PlayerTeam team = new PlayerTeam(DETACHED_SCOREBOARD, name);
+        return switch (action) {
+            case CREATE -> {
+                team.setNameTagVisibility(toVisibility(nameTagVisibility));
+                team.setCollisionRule(toCollisionRule(collision));
+                team.getPlayers().addAll(entries);
+                yield ClientboundSetPlayerTeamPacket.createAddOrModifyPacket(team, true);
+            }
+            case ADD_ENTRIES -> ClientboundSetPlayerTeamPacket.createMultiplePlayerPacket(team, entries, ClientboundSetPlayerTeamPacket.Action.ADD);
+            case REMOVE_ENTRIES -> ClientboundSetPlayerTeamPacket.createMultiplePlayerPacket(team, entries, ClientboundSetPlayerTeamPacket.Action.REMOVE);
+            case REMOVE -> ClientboundSetPlayerTeamPacket.createRemovePacket(team);
+        };
+    }
+
+    // Mapped the same way as CraftTeam, so options behave like on a real team
+    private static Team.Visibility toVisibility(org.bukkit.scoreboard.Team.OptionStatus status) {
+        return switch (status) {
+            case ALWAYS -> Team.Visibility.ALWAYS;
+            case NEVER -> Team.Visibility.NEVER;
+            case FOR_OTHER_TEAMS -> Team.Visibility.HIDE_FOR_OTHER_TEAMS;
+            case FOR_OWN_TEAM -> Team.Visibility.HIDE_FOR_OWN_TEAM;
+        };
+    }
+
+    private static Team.CollisionRule toCollisionRule(org.bukkit.scoreboard.Team.OptionStatus status) {
+        return switch (status) {
+            case ALWAYS -> Team.CollisionRule.ALWAYS;
+            case NEVER -> Team.CollisionRule.NEVER;
+            case FOR_OTHER_TEAMS -> Team.CollisionRule.PUSH_OTHER_TEAMS;
+            case FOR_OWN_TEAM -> Team.CollisionRule.PUSH_OWN_TEAM;
+        };
+    }
+
+    private enum Action {
+        CREATE,
+        ADD_ENTRIES,
+        REMOVE_ENTRIES,
+        REMOVE
+    }
+}
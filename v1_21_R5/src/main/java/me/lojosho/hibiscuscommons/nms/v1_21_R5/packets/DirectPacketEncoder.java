@@ -0,0 +1,161 @@
+package me.lojosho.hibiscuscommons.nms.v1_21_R5.packets;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import me.lojosho.hibiscuscommons.config.GlobalSettings;
+import me.lojosho.hibiscuscommons.nms.v1_21_R5.packets.wrapper.*;
+import me.lojosho.hibiscuscommons.packets.wrapper.PacketWrapper;
+import me.lojosho.hibiscuscommons.util.MessagesUtil;
+import net.minecraft.network.Connection;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.PacketEncoder;
+import net.minecraft.network.ProtocolInfo;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ClientGamePacketListener;
+import net.minecraft.network.protocol.game.ClientboundMoveEntityPacket;
+import net.minecraft.network.protocol.game.ClientboundRotateHeadPacket;
+import net.minecraft.network.protocol.game.ClientboundTeleportEntityPacket;
+import net.minecraft.network.protocol.game.GameProtocols;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerGamePacketListenerImpl;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.entity.PositionMoveRotation;
+import net.minecraft.world.entity.decoration.ArmorStand;
+import net.minecraft.world.phys.Vec3;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+
+/**
+ * Serializes the most sent entity packets straight from the values of their wrapper, without building the packet object.
+ * <p>
+ * Packet ids are taken from the server's own codec, and every encoder is compared byte for byte with the codec once at
+ * startup, on the main thread as the samples need a world. The packets it is compared with are built with the server's
+ * own constructors from fixed values, never through the wrappers. Until then, and for encoders that don't match, packets
+ * are sent the regular way.
+ */
+public final class DirectPacketEncoder {
+
+    private static final Map<Class<?>, Integer> PACKET_IDS = new HashMap<>();
+    private static volatile boolean verified = false;
+    private static ProtocolInfo<ClientGamePacketListener> playProtocol;
+
+    /**
+     * Serializes a packet directly, including its packet id.
+     * @param wrapper The packet
+     * @return The serialized packet, to be released by the caller, or null if the packet can't be serialized directly
+     */
+    @Nullable
+    public static ByteBuf encode(@NotNull PacketWrapper wrapper) {
+        if (!GlobalSettings.isDirectEncoding() || !verified || !(wrapper instanceof DirectlyEncodable encodable)) return null;
+        Integer id = PACKET_IDS.get(wrapper.getClass());
+        if (id == null) return null;
+
+        ByteBuf out = ByteBufAllocator.DEFAULT.buffer();
+        FriendlyByteBuf buf = new FriendlyByteBuf(out);
+        buf.writeVarInt(id);
+        encodable.encode(buf);
+        return out;
+    }
+
+    /**
+     * Serializes a native packet with the server's codec, including its packet id.
+     * @return The serialized packet, to be released by the caller
+     */
+    @NotNull
+    @SuppressWarnings("unchecked")
+    public static ByteBuf encodeWithCodec(@NotNull Packet<?> packet) {
+        ByteBuf out = ByteBufAllocator.DEFAULT.buffer();
+        try {
+            getPlayProtocol().codec().encode(out, (Packet<? super ClientGamePacketListener>) packet);
+        } catch (RuntimeException e) {
+            out.release();
+            throw e;
+        }
+        return out;
+    }
+
+    /**
+     * Returns where serialized packets can be written to a connection. Compression and encryption come after the encoder,
+     * so they are still applied per connection. Anything that changes packets before the encoder, like protocol
+     * translation, needs packets serialized for that connection alone.
+     * @return The context of the encoder, or null if the connection can't take serialized packets
+     */
+    @Nullable
+    public static ChannelHandlerContext getEncoderContext(@NotNull Connection connection) {
+        ChannelPipeline pipeline = connection.channel.pipeline();
+        ChannelHandlerContext encoder = pipeline.context("encoder");
+        if (encoder == null || !(encoder.handler() instanceof PacketEncoder<?>)) return null;
+        if (pipeline.get("via-encoder") != null) return null;
+        if (!(connection.getPacketListener() instanceof ServerGamePacketListenerImpl)) return null;
+        return encoder;
+    }
+
+    private static ProtocolInfo<ClientGamePacketListener> getPlayProtocol() {
+        if (playProtocol == null) {
+            playProtocol = GameProtocols.CLIENTBOUND_TEMPLATE.bind(RegistryFriendlyByteBuf.decorator(MinecraftServer.getServer().registryAccess()));
+        }
+        return playProtocol;
+    }
+
+    /**
+     * Compares every encoder with the server's codec. Has to be called on the main thread.
+     */
+    public static synchronized void verify() {
+        if (verified) return;
+        for (Sample sample : getSamples()) {
+            ByteBuf expected = null;
+            ByteBuf actual = null;
+            try {
+                expected = encodeWithCodec(sample.reference());
+                int id = new FriendlyByteBuf(expected.duplicate()).readVarInt();
+
+                actual = ByteBufAllocator.DEFAULT.buffer();
+                FriendlyByteBuf buf = new FriendlyByteBuf(actual);
+                buf.writeVarInt(id);
+                ((DirectlyEncodable) sample.wrapper()).encode(buf);
+
+                if (ByteBufUtil.equals(expected, actual)) {
+                    PACKET_IDS.put(sample.wrapper().getClass(), id);
+                } else {
+                    MessagesUtil.sendDebugMessages("Direct encoding of " + sample.wrapper().getType() + " does not match the server, using the regular encoder.", Level.WARNING);
+                }
+            } catch (RuntimeException e) {
+                MessagesUtil.sendDebugMessages("Unable to check direct encoding of " + sample.wrapper().getType() + ": " + e, Level.WARNING);
+            } finally {
+                if (expected != null) expected.release();
+                if (actual != null) actual.release();
+            }
+        }
+        verified = true;
+    }
+
+    // 45 and -30 degrees are sent as 32 and -21, the angle is truncated to 1/256 of a turn
+    private static List<Sample> getSamples() {
+        ArmorStand entity = new ArmorStand(EntityType.ARMOR_STAND, MinecraftServer.getServer().overworld());
+        entity.setId(1234);
+        return List.of(
+            new Sample(new EntityMoveWrapper(1234, (short) 12288, (short) -8192, (short) 4096, true),
+                    new ClientboundMoveEntityPacket.Pos(1234, (short) 12288, (short) -8192, (short) 4096, true)),
+            new Sample(new EntityMoveRotateWrapper(1234, (short) 12288, (short) -8192, (short) 4096, 45f, -30f, false),
+                    new ClientboundMoveEntityPacket.PosRot(1234, (short) 12288, (short) -8192, (short) 4096, (byte) 32, (byte) -21, false)),
+            new Sample(new EntityRotateWrapper(1234, 45f, -30f, false),
+                    new ClientboundMoveEntityPacket.Rot(1234, (byte) 32, (byte) -21, false)),
+            new Sample(new EntityTeleportWrapper(1234, 1.5, 64, -3.25, 45f, -30f, true),
+                    ClientboundTeleportEntityPacket.teleport(1234, new PositionMoveRotation(new Vec3(1.5, 64, -3.25), Vec3.ZERO, 45f, -30f), Set.of(), true)),
+            new Sample(new EntityRotateHeadWrapper(1234, 90f),
+                    new ClientboundRotateHeadPacket(entity, (byte) 64))
+        );
+    }
+
+    private record Sample(PacketWrapper wrapper, Packet<?> reference) {}
+}
@@ -1,5 +1,6 @@
 package me.lojosho.hibiscuscommons.nms.v1_21_R5.packets.wrapper;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntList;
 import me.lojosho.hibiscuscommons.packets.PacketType;
 import me.lojosho.hibiscuscommons.packets.wrapper.PacketWrapper;
@@ -10,7 +11,7 @@ public class EntityDestroyWrapper implements PacketWrapper {
     private final IntList entityIds;
 
     public EntityDestroyWrapper(IntList entityIds) {
-        this.entityIds = entityIds;
+        this.entityIds = new IntArrayList(entityIds);
     }
 
     @Override
@@ -16,11 +16,19 @@ import java.util.Map;
 public class EntityEquipmentSlotUpdateWrapper implements PacketWrapper {
 
     private final int entityId;
-    private final Map<EquipmentSlot, ItemStack> equipment;
+    private final List<Pair<net.minecraft.world.entity.EquipmentSlot, net.minecraft.world.item.ItemStack>> equipment;
 
     public EntityEquipmentSlotUpdateWrapper(int entityId, Map<EquipmentSlot, ItemStack> equipment) {
         this.entityId = entityId;
-        this.equipment = equipment;
+        // Converting EquipmentSlot and ItemStack to NMS ones, copying the items as they are now.
+        final List<Pair<net.minecraft.world.entity.EquipmentSlot, net.minecraft.world.item.ItemStack>> pairs = new ArrayList<>(equipment.size());
+
+        for (Map.Entry<EquipmentSlot, ItemStack> entry : equipment.entrySet()) {
+            net.minecraft.world.entity.EquipmentSlot nmsSlot = CraftEquipmentSlot.getNMS(entry.getKey());
+            net.minecraft.world.item.ItemStack nmsItem = CraftItemStack.asNMSCopy(entry.getValue());
+            pairs.add(new Pair<>(nmsSlot, nmsItem));
+        }
+        this.equipment = pairs;
     }
 
     @Override
@@ -30,15 +38,10 @@ public class EntityEquipmentSlotUpdateWrapper implements PacketWrapper {
 
     @Override
     public Object toNativePacket() {
-        // Converting EquipmentSlot and ItemStack to NMS ones.
-        final List<Pair<net.minecraft.world.entity.EquipmentSlot, net.minecraft.world.item.ItemStack>> pairs = new ArrayList<>();
-
-        for (org.bukkit.inventory.EquipmentSlot slot : equipment.keySet()) {
-            net.minecraft.world.entity.EquipmentSlot nmsSlot = CraftEquipmentSlot.getNMS(slot);
-            net.minecraft.world.item.ItemStack nmsItem = CraftItemStack.asNMSCopy(equipment.get(slot));
-
-            Pair<net.minecraft.world.entity.EquipmentSlot, net.minecraft.world.item.ItemStack> pair = new Pair<>(nmsSlot, nmsItem);
-            pairs.add(pair);
+        // The packet keeps the list, so every packet gets its own copies of the items
+        final List<Pair<net.minecraft.world.entity.EquipmentSlot, net.minecraft.world.item.ItemStack>> pairs = new ArrayList<>(equipment.size());
+        for (Pair<net.minecraft.world.entity.EquipmentSlot, net.minecraft.world.item.ItemStack> pair : equipment) {
+            pairs.add(new Pair<>(pair.getFirst(), pair.getSecond().copy()));
         }
 
         return new ClientboundSetEquipmentPacket(entityId, pairs);
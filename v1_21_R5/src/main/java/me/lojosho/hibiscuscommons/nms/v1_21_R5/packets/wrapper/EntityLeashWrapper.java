@@ -1,14 +1,12 @@
 package me.lojosho.hibiscuscommons.nms.v1_21_R5.packets.wrapper;
 
+import io.netty.buffer.Unpooled;
 import me.lojosho.hibiscuscommons.packets.PacketType;
-import me.lojosho.hibiscuscommons.packets.wrapper.PacketWrapper;
+import me.lojosho.hibiscuscommons.packets.wrapper.CachedPacketWrapper;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.protocol.game.ClientboundSetEntityLinkPacket;
-import net.minecraft.server.MinecraftServer;
-import net.minecraft.server.level.ServerLevel;
-import net.minecraft.world.entity.Entity;
-import net.minecraft.world.entity.decoration.ArmorStand;
 
-public class EntityLeashWrapper implements PacketWrapper {
+public class EntityLeashWrapper extends CachedPacketWrapper {
 
     private final int leashEntity;
     private final int entityId;
@@ -24,13 +22,11 @@ public class EntityLeashWrapper implements PacketWrapper {
     }
 
     @Override
-    public Object toNativePacket() {
-        ServerLevel level = MinecraftServer.getServer().overworld();
-        Entity entity1 = new ArmorStand(net.minecraft.world.entity.EntityType.ARMOR_STAND, level);
-        Entity entity2 = new ArmorStand(net.minecraft.world.entity.EntityType.ARMOR_STAND, level);
-        entity1.setId(leashEntity);
-        entity2.setId(entityId);
-
-        return new ClientboundSetEntityLinkPacket(entity1, entity2);
+    protected Object createNativePacket() {
+        // The packet can only be created from entities, so it is read back from its serialized form instead
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer(8));
+        buf.writeInt(leashEntity);
+        buf.writeInt(entityId);
+        return ClientboundSetEntityLinkPacket.STREAM_CODEC.decode(buf);
     }
 }
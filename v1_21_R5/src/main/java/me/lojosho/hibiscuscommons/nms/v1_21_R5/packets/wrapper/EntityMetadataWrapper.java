@@ -1,21 +1,59 @@
 package me.lojosho.hibiscuscommons.nms.v1_21_R5.packets.wrapper;
 
+import io.papermc.paper.adventure.PaperAdventure;
+import me.lojosho.hibiscuscommons.HibiscusCommonsPlugin;
 import me.lojosho.hibiscuscommons.packets.PacketType;
+import me.lojosho.hibiscuscommons.packets.metadata.EntityMetadata;
+import me.lojosho.hibiscuscommons.packets.wrapper.CoalescingPacketWrapper;
 import me.lojosho.hibiscuscommons.packets.wrapper.PacketWrapper;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import net.minecraft.network.chat.Component;
 import net.minecraft.network.protocol.game.ClientboundSetEntityDataPacket;
 import net.minecraft.network.syncher.EntityDataSerializers;
 import net.minecraft.network.syncher.SynchedEntityData;
+import org.bukkit.craftbukkit.block.data.CraftBlockData;
+import org.bukkit.craftbukkit.inventory.CraftItemStack;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
-public class EntityMetadataWrapper implements PacketWrapper {
+public class EntityMetadataWrapper implements CoalescingPacketWrapper {
 
     private final int entityId;
-    private final Map<Integer, Number> dataValues;
+    private final List<SynchedEntityData.DataValue<?>> dataValues;
 
     public EntityMetadataWrapper(int entityId, Map<Integer, Number> dataValues) {
+        this.entityId = entityId;
+        List<SynchedEntityData.DataValue<?>> nmsDataValues = new ArrayList<>(dataValues.size());
+        for (Map.Entry<Integer, Number> entry : dataValues.entrySet()) {
+            int index = entry.getKey();
+            Number value = entry.getValue();
+            nmsDataValues.add(switch (value) {
+                case Byte byteVal -> new SynchedEntityData.DataValue<>(index, EntityDataSerializers.BYTE, byteVal);
+                case Float floatVal -> new SynchedEntityData.DataValue<>(index, EntityDataSerializers.FLOAT, floatVal);
+                case Integer intVal -> new SynchedEntityData.DataValue<>(index, EntityDataSerializers.INT, intVal);
+                default ->
+                        throw new IllegalArgumentException("Unsupported data value type: " + value.getClass().getSimpleName());
+            });
+        }
+        this.dataValues = Collections.unmodifiableList(nmsDataValues);
+    }
+
+    public EntityMetadataWrapper(int entityId, @NotNull EntityMetadata metadata) {
+        this.entityId = entityId;
+        List<SynchedEntityData.DataValue<?>> nmsDataValues = new ArrayList<>(metadata.size());
+        for (int i = 0; i < metadata.size(); i++) nmsDataValues.add(toDataValue(metadata, i));
+        this.dataValues = Collections.unmodifiableList(nmsDataValues);
+    }
+
+    private EntityMetadataWrapper(int entityId, List<SynchedEntityData.DataValue<?>> dataValues) {
         this.entityId = entityId;
         this.dataValues = dataValues;
     }
@@ -25,20 +63,56 @@ public class EntityMetadataWrapper implements PacketWrapper {
         return PacketType.ENTITY_METADATA;
     }
 
+    @Override
+    public int getEntityId() {
+        return entityId;
+    }
+
+    @Override
+    public PacketWrapper coalesce(@NotNull PacketWrapper newer) {
+        if (!(newer instanceof EntityMetadataWrapper metadata)) return null;
+        List<SynchedEntityData.DataValue<?>> merged = new ArrayList<>(dataValues.size() + metadata.dataValues.size());
+        for (SynchedEntityData.DataValue<?> value : dataValues) {
+            if (!containsIndex(metadata.dataValues, value.id())) merged.add(value);
+        }
+        merged.addAll(metadata.dataValues);
+        return new EntityMetadataWrapper(entityId, Collections.unmodifiableList(merged));
+    }
+
     @Override
     public Object toNativePacket() {
-        List<SynchedEntityData.DataValue<?>> nmsDataValues = dataValues.entrySet().stream().map(entry -> {
-            int index = entry.getKey();
-            Number value = entry.getValue();
-            return switch (value) {
-                case Byte byteVal -> new SynchedEntityData.DataValue<>(index, EntityDataSerializers.BYTE, byteVal);
-                case Float floatVal -> new SynchedEntityData.DataValue<>(index, EntityDataSerializers.FLOAT, floatVal);
-                case Integer intVal -> new SynchedEntityData.DataValue<>(index, EntityDataSerializers.INT, intVal);
-                default ->
-                        throw new IllegalArgumentException("Unsupported data value type: " + value.getClass().getSimpleName());
-            };
-        }).collect(Collectors.toList());
+        return new ClientboundSetEntityDataPacket(entityId, dataValues);
+    }
+
+    private static boolean containsIndex(List<SynchedEntityData.DataValue<?>> dataValues, int index) {
+        for (SynchedEntityData.DataValue<?> value : dataValues) {
+            if (value.id() == index) return true;
+        }
+        return false;
+    }
+
+    private static SynchedEntityData.DataValue<?> toDataValue(EntityMetadata metadata, int position) {
+        int index = metadata.getIndex(position);
+        return switch (metadata.getType(position)) {
+            case BYTE -> new SynchedEntityData.DataValue<>(index, EntityDataSerializers.BYTE, metadata.getByte(position));
+            case INT -> new SynchedEntityData.DataValue<>(index, EntityDataSerializers.INT, metadata.getInt(position));
+            case FLOAT -> new SynchedEntityData.DataValue<>(index, EntityDataSerializers.FLOAT, metadata.getFloat(position));
+            case BOOLEAN -> new SynchedEntityData.DataValue<>(index, EntityDataSerializers.BOOLEAN, metadata.getBoolean(position));
+            case COMPONENT -> new SynchedEntityData.DataValue<>(index, EntityDataSerializers.COMPONENT,
+                    toComponent((net.kyori.adventure.text.Component) metadata.getObject(position)));
+            case OPTIONAL_COMPONENT -> new SynchedEntityData.DataValue<>(index, EntityDataSerializers.OPTIONAL_COMPONENT,
+                    Optional.ofNullable((net.kyori.adventure.text.Component) metadata.getObject(position)).map(EntityMetadataWrapper::toComponent));
+            case ITEM_STACK -> new SynchedEntityData.DataValue<>(index, EntityDataSerializers.ITEM_STACK,
+                    CraftItemStack.asNMSCopy((ItemStack) metadata.getObject(position)));
+            case VECTOR -> new SynchedEntityData.DataValue<>(index, EntityDataSerializers.VECTOR3, (Vector3f) metadata.getObject(position));
+            case QUATERNION -> new SynchedEntityData.DataValue<>(index, EntityDataSerializers.QUATERNION, (Quaternionf) metadata.getObject(position));
+            case BLOCK_STATE -> new SynchedEntityData.DataValue<>(index, EntityDataSerializers.BLOCK_STATE,
+                    ((CraftBlockData) metadata.getObject(position)).getState());
+        };
+    }
 
-        return new ClientboundSetEntityDataPacket(entityId, nmsDataValues);
+    private static Component toComponent(net.kyori.adventure.text.Component component) {
+        if (HibiscusCommonsPlugin.isOnPaper()) return PaperAdventure.asVanilla(component);
+        return Component.literal(PlainTextComponentSerializer.plainText().serialize(component));
     }
 }
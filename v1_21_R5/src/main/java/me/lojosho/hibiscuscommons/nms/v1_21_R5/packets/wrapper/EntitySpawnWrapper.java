@@ -1,7 +1,7 @@
 package me.lojosho.hibiscuscommons.nms.v1_21_R5.packets.wrapper;
 
 import me.lojosho.hibiscuscommons.packets.PacketType;
-import me.lojosho.hibiscuscommons.packets.wrapper.PacketWrapper;
+import me.lojosho.hibiscuscommons.packets.wrapper.CachedPacketWrapper;
 import net.minecraft.network.protocol.game.ClientboundAddEntityPacket;
 import net.minecraft.world.phys.Vec3;
 import org.bukkit.craftbukkit.entity.CraftEntityType;
@@ -9,7 +9,7 @@ import org.bukkit.entity.EntityType;
 
 import java.util.UUID;
 
-public class EntitySpawnWrapper implements PacketWrapper {
+public class EntitySpawnWrapper extends CachedPacketWrapper {
 
     private final int entityId;
     private final EntityType entityType;
@@ -46,7 +46,7 @@ public class EntitySpawnWrapper implements PacketWrapper {
     }
 
     @Override
-    public Object toNativePacket() {
+    protected Object createNativePacket() {
         net.minecraft.world.entity.EntityType<?> nmsEntityType = CraftEntityType.bukkitToMinecraft(entityType);
         Vec3 velocity = Vec3.ZERO;
         float headYaw = 0f;
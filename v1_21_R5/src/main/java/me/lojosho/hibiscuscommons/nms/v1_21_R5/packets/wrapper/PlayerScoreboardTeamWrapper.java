@@ -1,15 +1,32 @@
 package me.lojosho.hibiscuscommons.nms.v1_21_R5.packets.wrapper;
 
 import me.lojosho.hibiscuscommons.packets.wrapper.PacketWrapper;
+import net.minecraft.world.scores.PlayerTeam;
+import net.minecraft.world.scores.Scoreboard;
+import net.minecraft.world.scores.Team;
 import org.bukkit.entity.Player;
 
 public abstract class PlayerScoreboardTeamWrapper implements PacketWrapper {
 
+    // Teams are only ever created on this scoreboard, never added to it, so packets can be built without touching the server's scoreboard
+    private static final Scoreboard DETACHED_SCOREBOARD = new Scoreboard();
+
     protected final Player player;
+    protected final String playerName;
     protected final String name;
 
     public PlayerScoreboardTeamWrapper(Player player, String name) {
         this.player = player;
+        this.playerName = player.getName();
         this.name = name;
     }
+
+    /**
+     * Creates the team the packet is about, with name tags hidden.
+     */
+    protected PlayerTeam createTeam() {
+        PlayerTeam team = new PlayerTeam(DETACHED_SCOREBOARD, name);
+        team.setNameTagVisibility(Team.Visibility.NEVER);
+        return team;
+    }
 }
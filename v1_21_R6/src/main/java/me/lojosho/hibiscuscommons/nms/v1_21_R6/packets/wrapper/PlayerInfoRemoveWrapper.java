@@ -12,7 +12,7 @@ public class PlayerInfoRemoveWrapper implements PacketWrapper {
     private final List<UUID> uuids;
 
     public PlayerInfoRemoveWrapper(List<UUID> uuids) {
-        this.uuids = uuids;
+        this.uuids = List.copyOf(uuids);
     }
 
     @Override
@@ -4,14 +4,26 @@ import com.mojang.datafixers.util.Pair;
 import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
-import lombok.Getter;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
 import me.lojosho.hibiscuscommons.nms.NMSHandlers;
 import me.lojosho.hibiscuscommons.packets.PacketAction;
+import me.lojosho.hibiscuscommons.packets.PacketDispatcher;
+import me.lojosho.hibiscuscommons.packets.PacketHandlerType;
+import me.lojosho.hibiscuscommons.packets.PacketInterface;
+import me.lojosho.hibiscuscommons.packets.PacketSubscriptions;
+import me.lojosho.hibiscuscommons.packets.SharedRewriteCache;
 import me.lojosho.hibiscuscommons.packets.data.*;
-import me.lojosho.hibiscuscommons.plugins.SubPlugins;
+import me.lojosho.hibiscuscommons.packets.rules.EquipmentOverride;
+import me.lojosho.hibiscuscommons.packets.rules.PacketRules;
+import me.lojosho.hibiscuscommons.packets.rules.PassengerInjection;
+import me.lojosho.hibiscuscommons.packets.rules.RuleItem;
 import me.lojosho.hibiscuscommons.util.MessagesUtil;
+import net.minecraft.network.Connection;
 import net.minecraft.network.protocol.Packet;
 import net.minecraft.network.protocol.game.*;
+import net.minecraft.server.network.ServerGamePacketListenerImpl;
 import net.minecraft.world.entity.ai.attributes.AttributeModifier;
 import net.minecraft.world.entity.ai.attributes.Attributes;
 import net.minecraft.world.inventory.ClickType;
@@ -21,157 +33,281 @@ import org.bukkit.craftbukkit.inventory.CraftItemStack;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.EquipmentSlot;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 public class NMSPacketChannel extends ChannelDuplexHandler {
 
-    @Getter
-    private final Player player;
+    public static final String NAME = "hibiscus_channel_handler";
 
-    public NMSPacketChannel(Player player) {
+    private final Connection connection;
+    private volatile Player player;
+
+    public NMSPacketChannel(@NotNull Player player) {
+        this.connection = null;
         this.player = player;
     }
 
+    /**
+     * Creates a handler for a connection that is still being set up. Packets pass through untouched until the
+     * connection reaches the play phase and has a player.
+     * @param connection The connection
+     */
+    public NMSPacketChannel(@NotNull Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Returns the player of this connection.
+     * @return The player, or null while the connection is still logging in or configuring
+     */
+    @Nullable
+    public Player getPlayer() {
+        if (player == null && connection != null && connection.getPacketListener() instanceof ServerGamePacketListenerImpl listener) {
+            player = listener.player.getBukkitEntity();
+        }
+        return player;
+    }
+
     @Override
     public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
-        if (!(msg instanceof Packet packet)) {
+        if (!(msg instanceof Packet packet) || getPlayer() == null) {
             super.write(ctx, msg, promise);
             return;
         }
 
-        switch (packet) {
-            case ClientboundContainerSetContentPacket setContentPacket -> msg = handleMenuChange(setContentPacket);
-            case ClientboundContainerSetSlotPacket setSlotPacket -> msg = handleSlotChange(setSlotPacket);
-            case ClientboundSetEquipmentPacket equipmentPacket -> msg = handlePlayerEquipment(equipmentPacket);
-            case ClientboundSetPassengersPacket passengerPacket -> msg = handlePassengerSet(passengerPacket);
-            case ClientboundUpdateAttributesPacket attributesPacket -> msg = handleScaleChange(attributesPacket);
-            default -> {}
-        }
+        msg = handleOutbound(packet);
 
         if (msg == null) return;
         else super.write(ctx, msg, promise);
     }
 
+    private Packet<?> handleOutbound(@NotNull Packet<?> packet) {
+        return switch (packet) {
+            case ClientboundContainerSetContentPacket setContentPacket -> handleMenuChange(applySlotOverlays(setContentPacket));
+            case ClientboundContainerSetSlotPacket setSlotPacket -> handleSlotChange(applySlotOverlay(setSlotPacket));
+            case ClientboundSetEquipmentPacket equipmentPacket -> applyEquipmentOverride(handlePlayerEquipment(equipmentPacket));
+            case ClientboundSetPassengersPacket passengerPacket -> handlePassengerSet(applyPassengerInjection(passengerPacket));
+            case ClientboundUpdateAttributesPacket attributesPacket -> handleScaleChange(attributesPacket);
+            case ClientboundBundlePacket bundlePacket -> handleBundle(bundlePacket);
+            default -> packet;
+        };
+    }
+
+    /**
+     * Runs every packet inside a bundle through the same handlers as a packet sent on its own.
+     * The bundle is only rebuilt if one of its packets was changed or cancelled.
+     */
+    @SuppressWarnings("unchecked")
+    private Packet<?> handleBundle(@NotNull ClientboundBundlePacket packet) {
+        List<Packet<? super ClientGamePacketListener>> subPackets = null;
+        int index = 0;
+        for (Packet<? super ClientGamePacketListener> subPacket : packet.subPackets()) {
+            Packet<?> handled = handleOutbound(subPacket);
+            if (subPackets == null && handled != subPacket) {
+                // First change, copy over everything that came before it untouched
+                subPackets = new ArrayList<>();
+                Iterator<Packet<? super ClientGamePacketListener>> iterator = packet.subPackets().iterator();
+                for (int i = 0; i < index; i++) subPackets.add(iterator.next());
+            }
+            if (subPackets != null && handled != null) subPackets.add((Packet<? super ClientGamePacketListener>) handled);
+            index++;
+        }
+
+        if (subPackets == null) return packet;
+        if (subPackets.isEmpty()) return null;
+        return new ClientboundBundlePacket(subPackets);
+    }
+
+    // Packet rules are applied to the native packets before any packet interface sees them. Equipment overrides are the
+    // exception, they are applied after the rewrite so the rewritten packet can be shared between viewers
+
+    private ClientboundContainerSetContentPacket applySlotOverlays(@NotNull ClientboundContainerSetContentPacket packet) {
+        if (packet.containerId() != 0) return packet;
+        Int2ObjectMap<RuleItem> overlays = PacketRules.getSlotOverlays(player.getEntityId());
+        if (overlays == null) return packet;
+
+        List<ItemStack> items = new ArrayList<>(packet.items());
+        for (Int2ObjectMap.Entry<RuleItem> overlay : overlays.int2ObjectEntrySet()) {
+            if (overlay.getIntKey() >= 0 && overlay.getIntKey() < items.size()) items.set(overlay.getIntKey(), nativeItem(overlay.getValue()));
+        }
+        return new ClientboundContainerSetContentPacket(packet.containerId(), packet.stateId(), items, packet.carriedItem());
+    }
+
+    private ClientboundContainerSetSlotPacket applySlotOverlay(@NotNull ClientboundContainerSetSlotPacket packet) {
+        if (packet.getContainerId() != 0) return packet;
+        Int2ObjectMap<RuleItem> overlays = PacketRules.getSlotOverlays(player.getEntityId());
+        if (overlays == null) return packet;
+        RuleItem overlay = overlays.get(packet.getSlot());
+        if (overlay == null) return packet;
+        return new ClientboundContainerSetSlotPacket(packet.getContainerId(), packet.getStateId(), packet.getSlot(), nativeItem(overlay));
+    }
+
+    private Packet<?> applyEquipmentOverride(@Nullable Packet<?> handled) {
+        if (!(handled instanceof ClientboundSetEquipmentPacket packet)) return handled;
+        EquipmentOverride override = PacketRules.getEquipmentOverride(packet.getEntity());
+        if (override == null || !override.getViewers().test(player)) return packet;
+
+        List<Pair<net.minecraft.world.entity.EquipmentSlot, ItemStack>> slots = new ArrayList<>();
+        for (Pair<net.minecraft.world.entity.EquipmentSlot, ItemStack> piece : packet.getSlots()) {
+            if (override.getItem(CraftEquipmentSlot.getSlot(piece.getFirst())) == null) slots.add(piece);
+        }
+        for (Map.Entry<EquipmentSlot, RuleItem> entry : override.getItems().entrySet()) {
+            slots.add(Pair.of(CraftEquipmentSlot.getNMS(entry.getKey()), nativeItem(entry.getValue())));
+        }
+        return new ClientboundSetEquipmentPacket(packet.getEntity(), slots);
+    }
+
+    private ClientboundSetPassengersPacket applyPassengerInjection(@NotNull ClientboundSetPassengersPacket packet) {
+        PassengerInjection injection = PacketRules.getPassengerInjection(packet.getVehicle());
+        if (injection == null || !injection.getViewers().test(player)) return packet;
+
+        IntArrayList passengers = new IntArrayList(packet.getPassengers());
+        IntList injected = injection.getPassengers();
+        for (int i = 0; i < injected.size(); i++) {
+            if (!passengers.contains(injected.getInt(i))) passengers.add(injected.getInt(i));
+        }
+        if (passengers.size() == packet.getPassengers().length) return packet;
+        return (ClientboundSetPassengersPacket) NMSHandlers.getHandler().getPacketBuilder().buildEntityMountPacket(packet.getVehicle(), passengers.toIntArray()).toNativePacket();
+    }
+
+    private static ItemStack nativeItem(@NotNull RuleItem item) {
+        return item.getNativeItem(CraftItemStack::asNMSCopy);
+    }
+
     private Packet<?> handleMenuChange(@NotNull ClientboundContainerSetContentPacket packet) {
+        if (!PacketDispatcher.shouldDispatch(PacketHandlerType.CONTAINER_CONTENT, packet.containerId())) return packet;
         MessagesUtil.sendDebugMessages("ClientboundContainerSetContentPacket");
         MessagesUtil.sendDebugMessages("Menu Initial ");
 
         Integer windowId = packet.containerId();
         List<ItemStack> slotData = packet.items();
 
-        List<org.bukkit.inventory.ItemStack> bukkitItems = new ArrayList<>();
-        for (ItemStack nmsItem : slotData) {
-            if (nmsItem == null) {
-                slotData.add(null);
-                continue;
-            }
-            bukkitItems.add(CraftItemStack.asBukkitCopy(nmsItem));
-        }
+        // The packet is only sent to this player, so slots are mirrored without a copy when a plugin reads them
+        LazyItemList bukkitItems = new LazyItemList(slotData.size(), slot -> CraftItemStack.asCraftMirror(slotData.get(slot)));
 
-        AtomicReference<PacketAction> action = new AtomicReference<>(PacketAction.NOTHING);
         ContainerContentWrapper wrapper = new ContainerContentWrapper(windowId, bukkitItems);
-        SubPlugins.getSubPlugins().forEach(plugin -> {
-
-            PacketAction pluginAction = plugin.getPacketInterface().writeContainerContent(player, wrapper);
-            if (pluginAction != PacketAction.NOTHING) action.set(pluginAction);
-        });
-
-        if (action.get() == PacketAction.CANCELLED) return null;
-        if (action.get() == PacketAction.NOTHING) return packet;
-
-        List<ItemStack> nmsItems = new ArrayList<>();
-        for (org.bukkit.inventory.ItemStack bukkitItem : bukkitItems) {
-            if (bukkitItem == null) {
-                slotData.add(null);
-                continue;
+        PacketAction action = PacketDispatcher.dispatch(PacketHandlerType.CONTAINER_CONTENT, packet.containerId(), player, wrapper, PacketInterface::writeContainerContent);
+        if (action == PacketAction.CANCELLED) return null;
+        if (action == PacketAction.NOTHING) return packet;
+
+        List<ItemStack> nmsItems = new ArrayList<>(slotData.size());
+        List<org.bukkit.inventory.ItemStack> newItems = wrapper.getSlotData();
+        if (newItems != bukkitItems) {
+            // The whole list was replaced, so everything has to be converted
+            for (org.bukkit.inventory.ItemStack bukkitItem : newItems) nmsItems.add(CraftItemStack.asNMSCopy(bukkitItem));
+        } else {
+            for (int slot = 0; slot < slotData.size(); slot++) {
+                // Edits in place write through the mirror, except for an empty item, which the mirror replaces instead
+                if (bukkitItems.isModified(slot) || (bukkitItems.isLoaded(slot) && slotData.get(slot).isEmpty())) {
+                    nmsItems.add(CraftItemStack.asNMSCopy(bukkitItems.get(slot)));
+                } else {
+                    nmsItems.add(slotData.get(slot));
+                }
             }
-            nmsItems.add(CraftItemStack.asNMSCopy(bukkitItem));
         }
 
         return new ClientboundContainerSetContentPacket(wrapper.getWindowId(), packet.stateId(), nmsItems, packet.carriedItem());
     }
 
     private Packet<?> handleSlotChange(@NotNull ClientboundContainerSetSlotPacket packet) {
+        if (!PacketDispatcher.shouldDispatch(PacketHandlerType.SLOT_CONTENT, packet.getContainerId())) return packet;
         MessagesUtil.sendDebugMessages("ClientboundContainerSetSlotPacket");
 
         final int windowId = packet.getContainerId();
         final int slot = packet.getSlot();
         final ItemStack item = packet.getItem();
 
-        org.bukkit.inventory.ItemStack bukkitItem = CraftItemStack.asBukkitCopy(item);
+        SlotContentWrapper wrapper = new SlotContentWrapper(windowId, slot, () -> CraftItemStack.asCraftMirror(item));
 
-        AtomicReference<PacketAction> action = new AtomicReference<>(PacketAction.NOTHING);
-        SlotContentWrapper wrapper = new SlotContentWrapper(windowId, slot, bukkitItem);
+        PacketAction action = PacketDispatcher.dispatch(PacketHandlerType.SLOT_CONTENT, packet.getContainerId(), player, wrapper, PacketInterface::writeSlotContent);
+        if (action == PacketAction.CANCELLED) return null;
+        if (action == PacketAction.NOTHING) return packet;
 
-        SubPlugins.getSubPlugins().forEach(plugin -> {
-            PacketAction pluginAction = plugin.getPacketInterface().writeSlotContent(player, wrapper);
-            if (pluginAction != PacketAction.NOTHING) action.set(pluginAction);
-        });
-
-        if (action.get() == PacketAction.CANCELLED) return null;
-        if (action.get() == PacketAction.NOTHING) return packet;
-
-        final ItemStack nmsItem = CraftItemStack.asNMSCopy(wrapper.getItemStack());
+        // Edits in place write through the mirror, except for an empty item, which the mirror replaces instead
+        final ItemStack nmsItem;
+        if (wrapper.isItemModified() || (wrapper.isItemLoaded() && item.isEmpty())) nmsItem = CraftItemStack.asNMSCopy(wrapper.getItemStack());
+        else nmsItem = item;
 
         return new ClientboundContainerSetSlotPacket(packet.getContainerId(), packet.getStateId(), wrapper.getSlot(), nmsItem);
     }
 
     private Packet<?> handlePlayerEquipment(@NotNull ClientboundSetEquipmentPacket packet) {
+        if (!PacketDispatcher.shouldDispatch(PacketHandlerType.EQUIPMENT_CONTENT, packet.getEntity())) return packet;
+        // The same packet is written to every viewer, so a viewer independent rewrite is done once and shared
+        if (PacketSubscriptions.isEquipmentViewerIndependent()) return SharedRewriteCache.getOrRewrite(packet, this::rewritePlayerEquipment);
+        return rewritePlayerEquipment(packet);
+    }
+
+    private Packet<?> rewritePlayerEquipment(@NotNull ClientboundSetEquipmentPacket packet) {
         MessagesUtil.sendDebugMessages("ClientboundSetEquipmentPacket");
         final List<Pair<net.minecraft.world.entity.EquipmentSlot, ItemStack>> nmsArmor = packet.getSlots();
         final int entity = packet.getEntity();
-        HashMap<EquipmentSlot, org.bukkit.inventory.ItemStack> bukkitArmor = new HashMap<>();
+        final EnumMap<EquipmentSlot, ItemStack> originals = new EnumMap<>(EquipmentSlot.class);
         for (Pair<net.minecraft.world.entity.EquipmentSlot, ItemStack> piece : nmsArmor) {
-            EquipmentSlot slot = CraftEquipmentSlot.getSlot(piece.getFirst());
-            org.bukkit.inventory.ItemStack itemStack = CraftItemStack.asBukkitCopy(piece.getSecond());
-            bukkitArmor.put(slot, itemStack);
+            originals.put(CraftEquipmentSlot.getSlot(piece.getFirst()), piece.getSecond());
         }
 
-        AtomicReference<PacketAction> action = new AtomicReference<>(PacketAction.NOTHING);
-        EntityEquipmentWrapper wrapper = new EntityEquipmentWrapper(entity, bukkitArmor);
-
-        SubPlugins.getSubPlugins().forEach(plugin -> {
-            PacketAction pluginAction = plugin.getPacketInterface().writeEquipmentContent(player, wrapper);
-            if (pluginAction != PacketAction.NOTHING) action.set(pluginAction);
+        // Equipment packets are shared between viewers, so slots are mirrored over a copy that is only made when read
+        final EnumMap<EquipmentSlot, ItemStack> copies = new EnumMap<>(EquipmentSlot.class);
+        LazyEquipmentMap bukkitArmor = new LazyEquipmentMap(originals.keySet(), slot -> {
+            ItemStack copy = originals.get(slot).copy();
+            copies.put(slot, copy);
+            return CraftItemStack.asCraftMirror(copy);
         });
 
-        if (action.get() == PacketAction.CANCELLED) return null;
-        if (action.get() == PacketAction.NOTHING) return packet;
+        EntityEquipmentWrapper wrapper = new EntityEquipmentWrapper(entity, bukkitArmor);
+
+        PacketAction action = PacketDispatcher.dispatch(PacketHandlerType.EQUIPMENT_CONTENT, packet.getEntity(), player, wrapper, PacketInterface::writeEquipmentContent);
+        if (action == PacketAction.CANCELLED) return null;
+        if (action == PacketAction.NOTHING) return packet;
 
         List<Pair<net.minecraft.world.entity.EquipmentSlot, ItemStack>> newArmor = new ArrayList<>();
-        for (Map.Entry<EquipmentSlot, org.bukkit.inventory.ItemStack> entry : wrapper.getArmor().entrySet()) {
-            net.minecraft.world.entity.EquipmentSlot slot = CraftEquipmentSlot.getNMS(entry.getKey());
-            ItemStack itemStack = CraftItemStack.asNMSCopy(entry.getValue());
-            newArmor.add(new Pair<>(slot, itemStack));
+        if (wrapper.getArmor() != bukkitArmor) {
+            // The whole map was replaced, so everything has to be converted
+            for (Map.Entry<EquipmentSlot, org.bukkit.inventory.ItemStack> entry : wrapper.getArmor().entrySet()) {
+                net.minecraft.world.entity.EquipmentSlot slot = CraftEquipmentSlot.getNMS(entry.getKey());
+                ItemStack itemStack = CraftItemStack.asNMSCopy(entry.getValue());
+                newArmor.add(new Pair<>(slot, itemStack));
+            }
+        } else {
+            for (Pair<net.minecraft.world.entity.EquipmentSlot, ItemStack> piece : nmsArmor) {
+                EquipmentSlot slot = CraftEquipmentSlot.getSlot(piece.getFirst());
+                if (bukkitArmor.isModified(slot)) continue;
+                // A read slot may have been edited in place, which writes through to the copy unless the item was empty
+                ItemStack copy = copies.get(slot);
+                if (copy == null) newArmor.add(piece);
+                else if (piece.getSecond().isEmpty()) newArmor.add(new Pair<>(piece.getFirst(), CraftItemStack.asNMSCopy(bukkitArmor.get(slot))));
+                else newArmor.add(new Pair<>(piece.getFirst(), copy));
+            }
+            for (EquipmentSlot slot : bukkitArmor.getModifiedSlots()) {
+                // Removed slots are simply not sent
+                if (!bukkitArmor.containsKey(slot)) continue;
+                newArmor.add(new Pair<>(CraftEquipmentSlot.getNMS(slot), CraftItemStack.asNMSCopy(bukkitArmor.get(slot))));
+            }
         }
 
         return new ClientboundSetEquipmentPacket(packet.getEntity(), newArmor);
     }
 
     private Packet<?> handlePassengerSet(@NotNull ClientboundSetPassengersPacket packet) {
+        if (!PacketDispatcher.shouldDispatch(PacketHandlerType.PASSENGER_CONTENT, packet.getVehicle())) return packet;
         MessagesUtil.sendDebugMessages("ClientboundSetPassengersPacket");
         int ownerId = packet.getVehicle();
         List<Integer> passengers = Arrays.stream(packet.getPassengers()).boxed().collect(Collectors.toList());
         MessagesUtil.sendDebugMessages("Mount Packet Sent - Read - EntityID: " + ownerId);
 
-        AtomicReference<PacketAction> action = new AtomicReference<>(PacketAction.NOTHING);
         PassengerWrapper wrapper = new PassengerWrapper(ownerId, passengers);
-        SubPlugins.getSubPlugins().forEach(plugin -> {
-            PacketAction pluginAction = plugin.getPacketInterface().writePassengerContent(player, wrapper);
-            if (pluginAction != PacketAction.NOTHING) {
-                action.set(pluginAction);
-            }
-        });
-
-        if (action.get() == PacketAction.CANCELLED) return null;
-        if (action.get() == PacketAction.NOTHING) return packet;
+        PacketAction action = PacketDispatcher.dispatch(PacketHandlerType.PASSENGER_CONTENT, packet.getVehicle(), player, wrapper, PacketInterface::writePassengerContent);
+        if (action == PacketAction.CANCELLED) return null;
+        if (action == PacketAction.NOTHING) return packet;
         return (Packet<?>) NMSHandlers.getHandler().getPacketBuilder().buildEntityMountPacket(ownerId, passengers.stream().mapToInt(Integer::intValue).toArray()).toNativePacket();
     }
 
     private Packet<?> handleScaleChange(@NotNull ClientboundUpdateAttributesPacket packet) {
+        if (!PacketDispatcher.shouldDispatch(PacketHandlerType.PLAYER_SCALE, packet.getEntityId())) return packet;
         final List<ClientboundUpdateAttributesPacket.AttributeSnapshot> nmsAttributes = packet.getValues();
         final ClientboundUpdateAttributesPacket.AttributeSnapshot nmsScaleAttribute = nmsAttributes.stream()
             .filter(attribute -> attribute.attribute().equals(Attributes.SCALE))
@@ -182,8 +318,6 @@ public class NMSPacketChannel extends ChannelDuplexHandler {
             return packet;
         }
 
-        AtomicReference<PacketAction> action = new AtomicReference<>(PacketAction.NOTHING);
-
         final double base = nmsScaleAttribute.base();
         double total = base;
 
@@ -196,19 +330,14 @@ public class NMSPacketChannel extends ChannelDuplexHandler {
         }
         PlayerScaleWrapper wrapper = new PlayerScaleWrapper(packet.getEntityId(), base, total);
 
-        SubPlugins.getSubPlugins().forEach(plugin -> {
-            PacketAction pluginAction = plugin.getPacketInterface().readPlayerScale(player, wrapper);
-            if (pluginAction != PacketAction.NOTHING) action.set(pluginAction);
-        });
+        if (PacketDispatcher.dispatch(PacketHandlerType.PLAYER_SCALE, packet.getEntityId(), player, wrapper, PacketInterface::readPlayerScale) == PacketAction.CANCELLED) return null;
 
-        if (action.get() == PacketAction.CANCELLED) return null;
-        if (action.get() == PacketAction.NOTHING) return packet;
         return packet;
     }
 
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
-        if (!(msg instanceof Packet packet)) {
+        if (!(msg instanceof Packet packet) || getPlayer() == null) {
             super.channelRead(ctx, msg);
             return;
         }
@@ -226,64 +355,42 @@ public class NMSPacketChannel extends ChannelDuplexHandler {
     }
 
     private Packet<?> handleInventoryClick(@NotNull ServerboundContainerClickPacket packet) {
+        if (!PacketDispatcher.shouldDispatch(PacketHandlerType.INVENTORY_CLICK, packet.containerId())) return packet;
         MessagesUtil.sendDebugMessages("ServerboundContainerClickPacket");
         ClickType clickType = packet.clickType();
         int slotClicked = packet.slotNum();
 
-        AtomicReference<PacketAction> action = new AtomicReference<>(PacketAction.NOTHING);
-        SubPlugins.getSubPlugins().forEach(plugin -> {
-
-            PacketAction pluginAction = plugin.getPacketInterface().readInventoryClick(player, new InventoryClickWrapper(clickType.id(), slotClicked));
-            if (pluginAction != PacketAction.NOTHING) action.set(pluginAction);
-
-        });
-        if (action.get() == PacketAction.CANCELLED) return null;
+        InventoryClickWrapper wrapper = new InventoryClickWrapper(clickType.id(), slotClicked);
+        if (PacketDispatcher.dispatch(PacketHandlerType.INVENTORY_CLICK, packet.containerId(), player, wrapper, PacketInterface::readInventoryClick) == PacketAction.CANCELLED) return null;
         return packet;
     }
 
     private Packet<?> handlePlayerAction(ServerboundPlayerActionPacket packet) {
+        if (!PacketDispatcher.shouldDispatch(PacketHandlerType.PLAYER_ACTION)) return packet;
         MessagesUtil.sendDebugMessages("ServerboundPlayerActionPacket");
         ServerboundPlayerActionPacket.Action playerAction = packet.getAction();
 
-        AtomicReference<PacketAction> action = new AtomicReference<>(PacketAction.NOTHING);
-        SubPlugins.getSubPlugins().forEach(plugin -> {
-
-            PacketAction pluginAction = plugin.getPacketInterface().readPlayerAction(player, new PlayerActionWrapper(playerAction.name()));
-            if (pluginAction != PacketAction.NOTHING) action.set(pluginAction);
-
-        });
-        if (action.get() == PacketAction.CANCELLED) return null;
+        PlayerActionWrapper wrapper = new PlayerActionWrapper(playerAction.name());
+        if (PacketDispatcher.dispatch(PacketHandlerType.PLAYER_ACTION, player, wrapper, PacketInterface::readPlayerAction) == PacketAction.CANCELLED) return null;
         return packet;
     }
 
     private Packet<?> handlePlayerArm(@NotNull ServerboundSwingPacket packet) {
+        if (!PacketDispatcher.shouldDispatch(PacketHandlerType.PLAYER_ARM)) return packet;
         MessagesUtil.sendDebugMessages("ServerboundSwingPacket");
         PlayerSwingWrapper wrapper = new PlayerSwingWrapper(packet.getHand().name());
 
-        AtomicReference<PacketAction> action = new AtomicReference<>(PacketAction.NOTHING);
-        SubPlugins.getSubPlugins().forEach(plugin -> {
-
-            PacketAction pluginAction = plugin.getPacketInterface().readPlayerArm(player, wrapper);
-            if (pluginAction != PacketAction.NOTHING) action.set(pluginAction);
-
-        });
-        if (action.get() == PacketAction.CANCELLED) return null;
+        if (PacketDispatcher.dispatch(PacketHandlerType.PLAYER_ARM, player, wrapper, PacketInterface::readPlayerArm) == PacketAction.CANCELLED) return null;
         return packet;
     }
 
     private Packet<?> handleInteract(@NotNull ServerboundInteractPacket packet) {
+        if (!PacketDispatcher.shouldDispatch(PacketHandlerType.ENTITY_HANDLE, packet.getEntityId())) return packet;
         MessagesUtil.sendDebugMessages("ServerboundInteractPacket");
 
         PlayerInteractWrapper wrapper = new PlayerInteractWrapper(packet.getEntityId());
 
-        AtomicReference<PacketAction> action = new AtomicReference<>(PacketAction.NOTHING);
-        SubPlugins.getSubPlugins().forEach(plugin -> {
-
-            PacketAction pluginAction = plugin.getPacketInterface().readEntityHandle(player, wrapper);
-            if (pluginAction != PacketAction.NOTHING) action.set(pluginAction);
-
-        });
-        if (action.get() == PacketAction.CANCELLED) return null;
+        if (PacketDispatcher.dispatch(PacketHandlerType.ENTITY_HANDLE, packet.getEntityId(), player, wrapper, PacketInterface::readEntityHandle) == PacketAction.CANCELLED) return null;
         return packet;
     }
 }
\ No newline at end of file